@@ -0,0 +1,72 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The routing of a click through the {@link Dispatcher} to {@link InventoryAPI#onInteract(InventoryClickEvent)}, with N
+ * registered menus. Each invocation clicks an item of the next menu.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DispatchBenchmark {
+
+    @Param({ "1", "100", "10000" })
+    public int menus;
+
+    private Dispatcher dispatcher;
+    private InventoryAPI[] inventories;
+    private InventoryClickEvent[] events;
+    private int next;
+
+    @Setup
+    public void setup() {
+        final StubPlugin plugin = StubServer.plugin();
+        final ItemStack itemStack = new ItemStack(Material.STONE);
+        this.dispatcher = Dispatcher.getInstance(plugin);
+        this.inventories = new InventoryAPI[this.menus];
+        this.events = new InventoryClickEvent[this.menus];
+        for (int i = 0; i < this.menus; i++) {
+            final Player player = StubServer.player();
+            final InventoryAPI inventoryAPI = InventoryAPI.create(plugin).setSize(54).setTitle("Menu");
+            for (int slot = 0; slot < 54; slot++)
+                inventoryAPI.addItem(slot, itemStack, true, inventoryClickEvent -> {});
+            inventoryAPI.build(player);
+            this.inventories[i] = inventoryAPI;
+            this.events[i] = new InventoryClickEvent(player.getOpenInventory(), InventoryType.SlotType.CONTAINER, i % 54, ClickType.LEFT, InventoryAction.PICKUP_ALL);
+        }
+        this.next = 0;
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (final InventoryAPI inventoryAPI : this.inventories)
+            inventoryAPI.stop();
+    }
+
+    @Benchmark
+    public InventoryClickEvent click() {
+        final InventoryClickEvent event = this.events[this.next];
+        if (++this.next == this.events.length)
+            this.next = 0;
+        this.dispatcher.onInteract(event);
+        return event;
+    }
+}
@@ -0,0 +1,69 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The edition of the items of a full, built, 54-slot menu.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ItemsBenchmark {
+
+    private InventoryAPI inventoryAPI;
+    private ItemStack itemStack;
+    private int slot;
+
+    @Setup
+    public void setup() {
+        this.itemStack = new ItemStack(Material.STONE);
+        this.inventoryAPI = InventoryAPI.create(StubServer.plugin()).setSize(54).setTitle("Menu");
+        for (int slot = 0; slot < 54; slot++)
+            this.inventoryAPI.addItem(slot, this.itemStack, true, inventoryClickEvent -> {});
+        this.inventoryAPI.build(StubServer.player());
+        this.slot = 0;
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.inventoryAPI.stop();
+    }
+
+    private int nextSlot() {
+        final int slot = this.slot;
+        if (++this.slot == 54)
+            this.slot = 0;
+        return slot;
+    }
+
+    @Benchmark
+    public InventoryAPI setBorder() {
+        return this.inventoryAPI.setBorder(this.itemStack, true);
+    }
+
+    @Benchmark
+    public InventoryAPI addItem() {
+        return this.inventoryAPI.addItem(this.nextSlot(), this.itemStack, true);
+    }
+
+    /**
+     * Clear a slot, then fill it again so the next invocations still clear an item. Compare with {@link #addItem()}.
+     */
+    @Benchmark
+    public InventoryAPI clearSlot() {
+        final int slot = this.nextSlot();
+        this.inventoryAPI.clearSlot(slot);
+        return this.inventoryAPI.addItem(slot, this.itemStack, true);
+    }
+}
@@ -0,0 +1,71 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One tick of the {@link Scheduler}, with M refreshed menus of S dynamic slots each. Every slot changes at every tick, so each
+ * invocation computes, applies and renders all of them when the menus are viewed; when they aren't, the menus are suspended.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SchedulerBenchmark {
+
+    @Param({ "10", "100" })
+    public int menus;
+
+    @Param({ "9", "54" })
+    public int slots;
+
+    @Param({ "true", "false" })
+    public boolean viewed;
+
+    private Scheduler scheduler;
+    private InventoryAPI[] inventories;
+
+    @Setup
+    public void setup() {
+        final StubPlugin plugin = StubServer.plugin();
+        final ItemStack[] itemStacks = { new ItemStack(Material.STONE), new ItemStack(Material.DIRT) };
+        this.scheduler = Scheduler.getInstance();
+        this.inventories = new InventoryAPI[this.menus];
+        for (int i = 0; i < this.menus; i++) {
+            final InventoryAPI inventoryAPI = InventoryAPI.create(plugin).setSize(54).setTitle("Menu").setRefresh(true).setRefreshInterval(1);
+            for (int slot = 0; slot < this.slots; slot++)
+                inventoryAPI.addItem(slot, o -> itemStacks[(int) (this.scheduler.getTick() & 1)], true);
+            final Player player = StubServer.player();
+            inventoryAPI.build(player);
+            if (!this.viewed)
+                player.closeInventory();
+            this.inventories[i] = inventoryAPI;
+        }
+        this.tick();
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (final InventoryAPI inventoryAPI : this.inventories)
+            inventoryAPI.stop();
+        this.scheduler.await();
+        this.scheduler.exec();
+    }
+
+    @Benchmark
+    public void tick() {
+        this.scheduler.exec();
+        this.scheduler.await();
+    }
+}
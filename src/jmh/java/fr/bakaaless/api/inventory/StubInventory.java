@@ -0,0 +1,230 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * An inventory of the {@link StubServer}, backed by a plain array. Only the slot accesses used by InventoryAPI are realistic.
+ */
+final class StubInventory implements Inventory {
+
+    private final InventoryType type;
+    private final ItemStack[] contents;
+    private final List<HumanEntity> viewers;
+    private int maxStackSize;
+
+    StubInventory(final InventoryType type, final int size) {
+        this.type = type;
+        this.contents = new ItemStack[size];
+        this.viewers = new ArrayList<>();
+        this.maxStackSize = 64;
+    }
+
+    @Override
+    public int getSize() {
+        return this.contents.length;
+    }
+
+    @Override
+    public int getMaxStackSize() {
+        return this.maxStackSize;
+    }
+
+    @Override
+    public void setMaxStackSize(final int size) {
+        this.maxStackSize = size;
+    }
+
+    @Override
+    public ItemStack getItem(final int index) {
+        return this.contents[index];
+    }
+
+    @Override
+    public void setItem(final int index, final ItemStack item) {
+        this.contents[index] = item == null || item.getType() == Material.AIR ? null : item.clone();
+    }
+
+    @Override
+    public HashMap<Integer, ItemStack> addItem(final ItemStack... items) {
+        final HashMap<Integer, ItemStack> left = new HashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            final int slot = this.firstEmpty();
+            if (slot < 0)
+                left.put(i, items[i]);
+            else
+                this.setItem(slot, items[i]);
+        }
+        return left;
+    }
+
+    @Override
+    public HashMap<Integer, ItemStack> removeItem(final ItemStack... items) {
+        final HashMap<Integer, ItemStack> left = new HashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            final int slot = this.first(items[i]);
+            if (slot < 0)
+                left.put(i, items[i]);
+            else
+                this.clear(slot);
+        }
+        return left;
+    }
+
+    @Override
+    public ItemStack[] getContents() {
+        return this.contents.clone();
+    }
+
+    @Override
+    public void setContents(final ItemStack[] items) {
+        for (int i = 0; i < this.contents.length; i++)
+            this.setItem(i, i < items.length ? items[i] : null);
+    }
+
+    @Override
+    public ItemStack[] getStorageContents() {
+        return this.getContents();
+    }
+
+    @Override
+    public void setStorageContents(final ItemStack[] items) {
+        this.setContents(items);
+    }
+
+    @Override
+    public boolean contains(final Material material) {
+        return this.first(material) >= 0;
+    }
+
+    @Override
+    public boolean contains(final ItemStack item) {
+        return this.first(item) >= 0;
+    }
+
+    @Override
+    public boolean contains(final Material material, final int amount) {
+        return this.all(material).values().stream().mapToInt(ItemStack::getAmount).sum() >= amount;
+    }
+
+    @Override
+    public boolean contains(final ItemStack item, final int amount) {
+        return this.all(item).size() >= amount;
+    }
+
+    @Override
+    public boolean containsAtLeast(final ItemStack item, final int amount) {
+        return this.all(item).values().stream().mapToInt(ItemStack::getAmount).sum() >= amount;
+    }
+
+    @Override
+    public HashMap<Integer, ? extends ItemStack> all(final Material material) {
+        final HashMap<Integer, ItemStack> all = new HashMap<>();
+        for (int i = 0; i < this.contents.length; i++)
+            if (this.contents[i] != null && this.contents[i].getType() == material)
+                all.put(i, this.contents[i]);
+        return all;
+    }
+
+    @Override
+    public HashMap<Integer, ? extends ItemStack> all(final ItemStack item) {
+        final HashMap<Integer, ItemStack> all = new HashMap<>();
+        for (int i = 0; i < this.contents.length; i++)
+            if (this.contents[i] != null && this.contents[i].equals(item))
+                all.put(i, this.contents[i]);
+        return all;
+    }
+
+    @Override
+    public int first(final Material material) {
+        for (int i = 0; i < this.contents.length; i++)
+            if (this.contents[i] != null && this.contents[i].getType() == material)
+                return i;
+        return -1;
+    }
+
+    @Override
+    public int first(final ItemStack item) {
+        for (int i = 0; i < this.contents.length; i++)
+            if (this.contents[i] != null && this.contents[i].equals(item))
+                return i;
+        return -1;
+    }
+
+    @Override
+    public int firstEmpty() {
+        for (int i = 0; i < this.contents.length; i++)
+            if (this.contents[i] == null)
+                return i;
+        return -1;
+    }
+
+    public boolean isEmpty() {
+        return Arrays.stream(this.contents).allMatch(item -> item == null);
+    }
+
+    @Override
+    public void remove(final Material material) {
+        for (int i = 0; i < this.contents.length; i++)
+            if (this.contents[i] != null && this.contents[i].getType() == material)
+                this.contents[i] = null;
+    }
+
+    @Override
+    public void remove(final ItemStack item) {
+        for (int i = 0; i < this.contents.length; i++)
+            if (this.contents[i] != null && this.contents[i].equals(item))
+                this.contents[i] = null;
+    }
+
+    @Override
+    public void clear(final int index) {
+        this.contents[index] = null;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.contents, null);
+    }
+
+    @Override
+    public List<HumanEntity> getViewers() {
+        return this.viewers;
+    }
+
+    @Override
+    public InventoryType getType() {
+        return this.type;
+    }
+
+    @Override
+    public InventoryHolder getHolder() {
+        return null;
+    }
+
+    @Override
+    public ListIterator<ItemStack> iterator() {
+        return Arrays.asList(this.contents).listIterator();
+    }
+
+    @Override
+    public ListIterator<ItemStack> iterator(final int index) {
+        return Arrays.asList(this.contents).listIterator(index);
+    }
+
+    @Override
+    public Location getLocation() {
+        return null;
+    }
+}
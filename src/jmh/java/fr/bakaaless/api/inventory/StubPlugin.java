@@ -0,0 +1,20 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.Server;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+
+/**
+ * The plugin of the benchmarks, created with the testing constructor of {@link JavaPlugin}.
+ */
+@SuppressWarnings("deprecation")
+final class StubPlugin extends JavaPlugin {
+
+    StubPlugin(final Server server) {
+        super(new JavaPluginLoader(server), new PluginDescriptionFile("InventoryAPI-Benchmark", "1.0", StubPlugin.class.getName()), new File("build/jmh"), new File("build/jmh/benchmark.jar"));
+        this.setEnabled(true);
+    }
+}
@@ -0,0 +1,158 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * A lightweight in-process Bukkit server for the benchmarks: it only creates {@link StubInventory} instances, and every other
+ * call does nothing. The scheduled tasks never run, so the benchmarks drive {@link Scheduler#exec()} themselves.
+ */
+final class StubServer {
+
+    private static Server server;
+    private static StubPlugin plugin;
+
+    private StubServer() {
+    }
+
+    /**
+     * Get the plugin of the benchmarks, installing the stub server the first time.
+     * @return The plugin
+     */
+    static synchronized StubPlugin plugin() {
+        if (plugin == null) {
+            server = create();
+            if (Bukkit.getServer() == null)
+                Bukkit.setServer(server);
+            plugin = new StubPlugin(server);
+        }
+        return plugin;
+    }
+
+    /**
+     * Create a player which can open inventories. The last opened inventory is given by {@link Player#getOpenInventory()}, and
+     * the player is one of its viewers until it's closed, without any event.
+     * @return A new player
+     */
+    static Player player() {
+        final UUID uuid = UUID.randomUUID();
+        final InventoryView[] view = new InventoryView[1];
+        return proxy(Player.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getUniqueId":
+                    return uuid;
+                case "openInventory":
+                    if (args[0] instanceof Inventory) {
+                        if (view[0] != null)
+                            view[0].getTopInventory().getViewers().remove(proxy);
+                        view[0] = new StubView((Inventory) args[0], (HumanEntity) proxy);
+                        ((Inventory) args[0]).getViewers().add((HumanEntity) proxy);
+                    }
+                    return view[0];
+                case "closeInventory":
+                    if (view[0] != null)
+                        view[0].getTopInventory().getViewers().remove(proxy);
+                    view[0] = null;
+                    return null;
+                case "getOpenInventory":
+                    return view[0];
+                case "getName":
+                    return "Benchmark";
+                case "getServer":
+                    return server;
+                default:
+                    return fallback(proxy, method.getReturnType(), method.getName(), args);
+            }
+        });
+    }
+
+    private static Server create() {
+        final Logger logger = Logger.getLogger("StubServer");
+        final BukkitTask task = proxy(BukkitTask.class, (proxy, method, args) -> fallback(proxy, method.getReturnType(), method.getName(), args));
+        final BukkitScheduler scheduler = proxy(BukkitScheduler.class, (proxy, method, args) -> {
+            if (method.getReturnType() == BukkitTask.class)
+                return task;
+            return fallback(proxy, method.getReturnType(), method.getName(), args);
+        });
+        final PluginManager pluginManager = proxy(PluginManager.class, (proxy, method, args) -> fallback(proxy, method.getReturnType(), method.getName(), args));
+        final ItemFactory itemFactory = proxy(ItemFactory.class, (proxy, method, args) -> {
+            if (method.getName().equals("equals") && args != null && args.length == 2)
+                return Objects.equals(args[0], args[1]);
+            if (method.getName().equals("isApplicable"))
+                return true;
+            return fallback(proxy, method.getReturnType(), method.getName(), args);
+        });
+        return proxy(Server.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "createInventory":
+                    if (args[1] instanceof InventoryType)
+                        return new StubInventory((InventoryType) args[1], ((InventoryType) args[1]).getDefaultSize());
+                    return new StubInventory(InventoryType.CHEST, (Integer) args[1]);
+                case "getScheduler":
+                    return scheduler;
+                case "getPluginManager":
+                    return pluginManager;
+                case "getItemFactory":
+                    return itemFactory;
+                case "getLogger":
+                    return logger;
+                case "getName":
+                    return "StubServer";
+                case "getVersion":
+                case "getBukkitVersion":
+                    return "benchmark";
+                case "isPrimaryThread":
+                    return true;
+                default:
+                    return fallback(proxy, method.getReturnType(), method.getName(), args);
+            }
+        });
+    }
+
+    private static <T> T proxy(final Class<T> type, final InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(StubServer.class.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    private static Object fallback(final Object proxy, final Class<?> type, final String name, final Object[] args) {
+        switch (name) {
+            case "equals":
+                return args != null && args.length == 1 && proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return proxy.getClass().getInterfaces()[0].getSimpleName() + "Stub";
+        }
+        if (type == boolean.class)
+            return false;
+        if (type == int.class)
+            return 0;
+        if (type == long.class)
+            return 0L;
+        if (type == double.class)
+            return 0d;
+        if (type == float.class)
+            return 0f;
+        if (type == short.class)
+            return (short) 0;
+        if (type == byte.class)
+            return (byte) 0;
+        if (type == char.class)
+            return '\0';
+        return null;
+    }
+}
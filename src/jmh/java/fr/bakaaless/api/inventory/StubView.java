@@ -0,0 +1,47 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+
+/**
+ * The view of a player on an inventory of the {@link StubServer}, used to build the events of the benchmarks.
+ */
+final class StubView extends InventoryView {
+
+    private final Inventory top;
+    private final Inventory bottom;
+    private final HumanEntity player;
+
+    StubView(final Inventory top, final HumanEntity player) {
+        this.top = top;
+        this.bottom = new StubInventory(InventoryType.PLAYER, 36);
+        this.player = player;
+    }
+
+    @Override
+    public Inventory getTopInventory() {
+        return this.top;
+    }
+
+    @Override
+    public Inventory getBottomInventory() {
+        return this.bottom;
+    }
+
+    @Override
+    public HumanEntity getPlayer() {
+        return this.player;
+    }
+
+    @Override
+    public InventoryType getType() {
+        return this.top.getType();
+    }
+
+    @Override
+    public String getTitle() {
+        return "";
+    }
+}
@@ -0,0 +1,59 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The creation of a 54-slot {@link Template}, with 9 dynamic slots, and its application to new or filled menus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TemplateBenchmark {
+
+    private StubPlugin plugin;
+    private List<ItemAPI> items;
+    private Template template;
+    private InventoryAPI filled;
+
+    @Setup
+    public void setup() {
+        final ItemStack itemStack = new ItemStack(Material.STONE);
+        this.plugin = StubServer.plugin();
+        this.items = new ArrayList<>();
+        for (int slot = 0; slot < 54; slot++) {
+            if (slot % 6 == 0)
+                this.items.add(new ItemAPI(slot, o -> itemStack, true, inventoryClickEvent -> {}));
+            else
+                this.items.add(new ItemAPI(slot, itemStack, true, inventoryClickEvent -> {}));
+        }
+        this.template = new Template(this.items);
+        this.filled = InventoryAPI.create(this.plugin).setSize(54).applyTemplate(this.template);
+    }
+
+    @Benchmark
+    public Template create() {
+        return new Template(this.items);
+    }
+
+    @Benchmark
+    public InventoryAPI applyToNewMenu() {
+        return InventoryAPI.create(this.plugin).setSize(54).applyTemplate(this.template);
+    }
+
+    @Benchmark
+    public InventoryAPI applyToFilledMenu() {
+        return this.filled.applyTemplate(this.template);
+    }
+}
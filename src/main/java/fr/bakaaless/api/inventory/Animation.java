@@ -0,0 +1,98 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * An immutable ring of frames, built once, which can be shown by the items of any {@link InventoryAPI}.
+ * <p>
+ * The current frame only depends on the tick counted by the {@link Scheduler} (0 before its first tick), shared by every
+ * inventory, and on the phase of the item: the animations in sync show the same ItemStack instances in every inventory, and
+ * advancing an item only costs an index and a slot write. The frames mustn't be modified.
+ */
+public class Animation {
+
+    private final ItemStack[] frames;
+    private final int interval;
+
+    private Animation(final int interval, final ItemStack[] frames) {
+        if (frames.length == 0)
+            throw new IllegalArgumentException("An animation needs at least one frame");
+        this.interval = Math.max(1, interval);
+        this.frames = frames;
+    }
+
+    /**
+     * Create an animation from its frames.
+     * @param interval The duration of a frame in ticks
+     * @param frames The frames, in order
+     * @return A new Animation
+     */
+    public static Animation of(final int interval, final ItemStack... frames) {
+        final ItemStack[] copies = new ItemStack[frames.length];
+        for (int i = 0; i < frames.length; i++)
+            copies[i] = frames[i].clone();
+        return new Animation(interval, copies);
+    }
+
+    /**
+     * Create an animation by building each frame once.
+     * @param interval The duration of a frame in ticks
+     * @param count The amount of frames
+     * @param frame A function that return the ItemStack of a frame, from its index
+     * @return A new Animation
+     */
+    public static Animation of(final int interval, final int count, final IntFunction<ItemStack> frame) {
+        final ItemStack[] frames = new ItemStack[Math.max(0, count)];
+        for (int i = 0; i < frames.length; i++)
+            frames[i] = frame.apply(i);
+        return new Animation(interval, frames);
+    }
+
+    /**
+     * Get the frame shown at a tick.
+     * @param tick The tick of the scheduler
+     * @param phase The amount of frames the item is ahead of the animation
+     * @return The shared ItemStack of the frame
+     */
+    ItemStack frame(final long tick, final int phase) {
+        return this.frames[(int) Math.floorMod(tick / this.interval + phase, (long) this.frames.length)];
+    }
+
+    /**
+     * Get the amount of ticks until the next frame.
+     * @param tick The tick of the scheduler
+     * @return The delay in ticks, an integer
+     */
+    int delay(final long tick) {
+        return (int) (this.interval - tick % this.interval);
+    }
+
+    /**
+     * Get the duration of a frame.
+     * @return The duration in ticks, an integer
+     */
+    public int getInterval() {
+        return this.interval;
+    }
+
+    /**
+     * Get the frames of this animation, which mustn't be modified.
+     * @return A read-only list of ItemStack
+     */
+    public List<ItemStack> getFrames() {
+        return Collections.unmodifiableList(Arrays.asList(this.frames));
+    }
+
+    @Override
+    public String toString() {
+        return "Animation{" +
+                "frames=" + this.frames.length +
+                ", interval=" + this.interval +
+                '}';
+    }
+}
@@ -0,0 +1,107 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+
+import java.util.UUID;
+
+/**
+ * A click handled by an asynchronous action (see {@link InventoryAPI#addAsyncItem(int, org.bukkit.inventory.ItemStack, boolean, java.util.function.Consumer)}).
+ * <p>
+ * The action runs on a worker thread, after the previous actions of the same player. It mustn't use the Bukkit API, except
+ * in the code given to {@link #sync(Runnable)}, which runs on the main thread.
+ */
+public class AsyncClick {
+
+    private final InventoryAPI inventoryAPI;
+    private final Player player;
+    private final UUID viewer;
+    private final int slot;
+    private final ClickType click;
+    private volatile boolean cancelled;
+
+    AsyncClick(final InventoryAPI inventoryAPI, final Player player, final int slot, final ClickType click) {
+        this.inventoryAPI = inventoryAPI;
+        this.player = player;
+        this.viewer = player.getUniqueId();
+        this.slot = slot;
+        this.click = click;
+        this.cancelled = false;
+    }
+
+    /**
+     * Get the inventory which has been clicked. Its methods have to be called in {@link #sync(Runnable)}.
+     * @return The {@link InventoryAPI}
+     */
+    public InventoryAPI getInventoryAPI() {
+        return this.inventoryAPI;
+    }
+
+    /**
+     * Get the player who clicked. Its methods have to be called in {@link #sync(Runnable)}.
+     * @return The player
+     */
+    public Player getPlayer() {
+        return this.player;
+    }
+
+    /**
+     * Get the unique id of the player who clicked. Can be used from the worker thread.
+     * @return The unique id of the player
+     */
+    public UUID getViewer() {
+        return this.viewer;
+    }
+
+    /**
+     * Get the clicked slot.
+     * @return The id of the slot, an integer
+     */
+    public int getSlot() {
+        return this.slot;
+    }
+
+    /**
+     * Get the type of the click.
+     * @return The {@link ClickType}
+     */
+    public ClickType getClick() {
+        return this.click;
+    }
+
+    /**
+     * Check if the inventory has been stopped since the click. A cancelled action isn't started, and its main thread code is
+     * dropped.
+     * @return true if cancelled, else false.
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Run some code on the main thread, to update the inventory or the player, unless the action has been cancelled.
+     * @param runnable The code to run
+     */
+    public void sync(final Runnable runnable) {
+        if (this.cancelled || !this.inventoryAPI.getPlugin().isEnabled())
+            return;
+        this.inventoryAPI.getPlugin().getServer().getScheduler().runTask(this.inventoryAPI.getPlugin(), () -> {
+            if (!this.cancelled)
+                runnable.run();
+        });
+    }
+
+    void cancel() {
+        this.cancelled = true;
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncClick{" +
+                "viewer=" + this.viewer +
+                ", slot=" + this.slot +
+                ", click=" + this.click +
+                ", cancelled=" + this.cancelled +
+                '}';
+    }
+}
@@ -0,0 +1,137 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The progress of an inventory opened to many players, see {@link InventoryAPI#buildAll(Collection, long, java.util.concurrent.TimeUnit)}.
+ * <p>
+ * The inventory is computed once, then opened to as many players as the time budget allows at each tick.
+ */
+public class BulkOpen {
+
+    private final InventoryAPI inventoryAPI;
+    private final Queue<Player> players;
+    private final int total;
+    private final long budget;
+    private final CompletableFuture<Void> future;
+    private BukkitTask task;
+    private int opened;
+    private int skipped;
+
+    BulkOpen(final InventoryAPI inventoryAPI, final Collection<? extends Player> players, final long budget) {
+        this.inventoryAPI = inventoryAPI;
+        this.players = new ArrayDeque<>(players);
+        this.total = this.players.size();
+        this.budget = budget;
+        this.future = new CompletableFuture<>();
+        this.opened = 0;
+        this.skipped = 0;
+    }
+
+    void start() {
+        if (this.players.isEmpty()) {
+            this.future.complete(null);
+            return;
+        }
+        this.task = this.inventoryAPI.getPlugin().getServer().getScheduler().runTaskTimer(this.inventoryAPI.getPlugin(), this::tick, 0L, 1L);
+    }
+
+    private void tick() {
+        final long start = System.nanoTime();
+        do {
+            final Player player = this.players.poll();
+            if (player == null)
+                break;
+            if (!player.isOnline()) {
+                this.skipped++;
+                continue;
+            }
+            try {
+                this.inventoryAPI.build(player);
+                this.opened++;
+            } catch (final Throwable throwable) {
+                this.task.cancel();
+                this.future.completeExceptionally(throwable);
+                return;
+            }
+        } while (System.nanoTime() - start < this.budget);
+        if (!this.players.isEmpty())
+            return;
+        this.task.cancel();
+        this.future.complete(null);
+    }
+
+    /**
+     * Stop opening the inventory to the remaining players. The future is cancelled.
+     */
+    public void cancel() {
+        if (this.task != null)
+            this.task.cancel();
+        this.players.clear();
+        this.future.cancel(false);
+    }
+
+    /**
+     * Get the future completed, on the main thread, when every player has the inventory.
+     * @return A CompletableFuture
+     */
+    public CompletableFuture<Void> getFuture() {
+        return this.future;
+    }
+
+    /**
+     * Get the amount of players who have the inventory.
+     * @return The amount of players, an integer
+     */
+    public int getOpened() {
+        return this.opened;
+    }
+
+    /**
+     * Get the amount of players who left before the inventory was opened to them.
+     * @return The amount of players, an integer
+     */
+    public int getSkipped() {
+        return this.skipped;
+    }
+
+    /**
+     * Get the amount of players still waiting for the inventory.
+     * @return The amount of players, an integer
+     */
+    public int getRemaining() {
+        return this.players.size();
+    }
+
+    /**
+     * Get the amount of players given to {@link InventoryAPI#buildAll(Collection, long, java.util.concurrent.TimeUnit)}.
+     * @return The amount of players, an integer
+     */
+    public int getTotal() {
+        return this.total;
+    }
+
+    /**
+     * Check if the inventory has been opened to every player, or if the opening has been cancelled.
+     * @return true if done, else false
+     */
+    public boolean isDone() {
+        return this.future.isDone();
+    }
+
+    @Override
+    public String toString() {
+        return "BulkOpen{" +
+                "opened=" + this.opened +
+                ", skipped=" + this.skipped +
+                ", remaining=" + this.players.size() +
+                ", total=" + this.total +
+                '}';
+    }
+}
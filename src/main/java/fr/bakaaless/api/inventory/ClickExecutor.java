@@ -0,0 +1,102 @@
+package fr.bakaaless.api.inventory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * The worker threads of the asynchronous click actions. The actions of a player run one after another, in the order of the
+ * clicks, while the actions of different players run in parallel.
+ */
+final class ClickExecutor {
+
+    private static ClickExecutor instance;
+
+    static synchronized ClickExecutor getInstance() {
+        if (instance == null)
+            instance = new ClickExecutor();
+        return instance;
+    }
+
+    private final ThreadPoolExecutor pool;
+    private final Map<UUID, Queue<Action>> lanes;
+
+    private ClickExecutor() {
+        final int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        final AtomicInteger count = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, "InventoryAPI-Click-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pool.allowCoreThreadTimeOut(true);
+        this.lanes = new HashMap<>();
+    }
+
+    /**
+     * Queue an action after the previous actions of the same player.
+     * @param click The click which triggered the action
+     * @param action The action of the item
+     */
+    void submit(final AsyncClick click, final Consumer<AsyncClick> action) {
+        final UUID viewer = click.getViewer();
+        synchronized (this.lanes) {
+            Queue<Action> lane = this.lanes.get(viewer);
+            if (lane != null) {
+                lane.add(new Action(click, action));
+                return;
+            }
+            lane = new ArrayDeque<>();
+            lane.add(new Action(click, action));
+            this.lanes.put(viewer, lane);
+        }
+        this.pool.execute(() -> this.drain(viewer));
+    }
+
+    private void drain(final UUID viewer) {
+        while (true) {
+            final Action action;
+            synchronized (this.lanes) {
+                final Queue<Action> lane = this.lanes.get(viewer);
+                action = lane.peek();
+                if (action == null) {
+                    this.lanes.remove(viewer);
+                    return;
+                }
+            }
+            try {
+                if (!action.click.isCancelled())
+                    action.action.accept(action.click);
+            } catch (final Throwable throwable) {
+                action.click.getInventoryAPI().getPlugin().getLogger().log(Level.WARNING, "Can't run the action of the slot " + action.click.getSlot() + " in InventoryAPI", throwable);
+            } finally {
+                action.click.getInventoryAPI().finished(action.click);
+                synchronized (this.lanes) {
+                    this.lanes.get(viewer).poll();
+                }
+            }
+        }
+    }
+
+    /**
+     * A click waiting for its action.
+     */
+    private static final class Action {
+
+        private final AsyncClick click;
+        private final Consumer<AsyncClick> action;
+
+        private Action(final AsyncClick click, final Consumer<AsyncClick> action) {
+            this.click = click;
+            this.action = action;
+        }
+    }
+}
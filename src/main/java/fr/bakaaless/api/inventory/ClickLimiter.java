@@ -0,0 +1,124 @@
+package fr.bakaaless.api.inventory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The click rate limits of an {@link InventoryAPI}: a token bucket per viewer for the whole inventory, plus one per viewer and
+ * per limited slot. The state of a viewer is allocated on its first click, then reused, and dropped when it leaves.
+ * <p>
+ * The clicks are coalesced by server tick, counted by the {@link Dispatcher} of the plugin.
+ */
+final class ClickLimiter {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final Map<UUID, State> states;
+
+    ClickLimiter() {
+        this.states = new HashMap<>();
+    }
+
+    /**
+     * Take a click from the buckets of a viewer.
+     * @param viewer The unique id of the player who clicked
+     * @param size The size of the inventory
+     * @param slot The clicked slot of the inventory, or -1 if the click is outside of the inventory
+     * @param itemAPI The clicked item, or null
+     * @param rate The clicks per second allowed in the whole inventory, 0 for no limit
+     * @param burst The clicks allowed at once in the whole inventory
+     * @param coalesce true to drop the clicks on a slot already clicked during the same tick
+     * @param tick The current server tick, used to coalesce the clicks
+     * @return true if the click is allowed, else false
+     */
+    boolean acquire(final UUID viewer, final int size, final int slot, final ItemAPI itemAPI, final double rate, final int burst, final boolean coalesce, final long tick) {
+        State state = this.states.get(viewer);
+        if (state == null) {
+            state = new State(size);
+            this.states.put(viewer, state);
+        }
+        else if (state.size != size)
+            state.resize(size);
+        final long now = System.nanoTime();
+        final boolean inside = slot >= 0 && slot < size;
+        if (coalesce && inside && state.ticks[slot] == tick)
+            return false;
+        if (rate > 0 && !state.take(size, rate, burst, now))
+            return false;
+        if (inside && itemAPI != null && itemAPI.getClickRate() > 0 && !state.take(slot, itemAPI.getClickRate(), itemAPI.getClickBurst(), now))
+            return false;
+        if (coalesce && inside)
+            state.ticks[slot] = tick;
+        return true;
+    }
+
+    /**
+     * Drop the state of a viewer.
+     * @param viewer The unique id of the player
+     */
+    void remove(final UUID viewer) {
+        this.states.remove(viewer);
+    }
+
+    /**
+     * Drop the state of every viewer.
+     */
+    void clear() {
+        this.states.clear();
+    }
+
+    /**
+     * The buckets of a viewer, indexed by slot. The last bucket is the one of the whole inventory.
+     */
+    private static final class State {
+
+        private int size;
+        private double[] tokens;
+        private long[] refilled;
+        private long[] ticks;
+
+        private State(final int size) {
+            this.size = size;
+            this.tokens = new double[size + 1];
+            this.refilled = new long[size + 1];
+            this.ticks = new long[size];
+            Arrays.fill(this.refilled, NEVER);
+            Arrays.fill(this.ticks, NEVER);
+        }
+
+        /**
+         * Reuse the buckets for an inventory of another size. The bucket of the whole inventory is kept, the ones of the slots
+         * are reset, and the arrays are only replaced if they are too small.
+         * @param size The size of the inventory
+         */
+        private void resize(final int size) {
+            final double tokens = this.tokens[this.size];
+            final long refilled = this.refilled[this.size];
+            if (size + 1 > this.tokens.length) {
+                this.tokens = new double[size + 1];
+                this.refilled = new long[size + 1];
+                this.ticks = new long[size];
+            }
+            Arrays.fill(this.refilled, 0, size, NEVER);
+            Arrays.fill(this.ticks, 0, size, NEVER);
+            this.tokens[size] = tokens;
+            this.refilled[size] = refilled;
+            this.size = size;
+        }
+
+        private boolean take(final int index, final double rate, final int burst, final long now) {
+            final double available = this.refilled[index] == NEVER ? burst : Math.min(burst, this.tokens[index] + (now - this.refilled[index]) * rate / SECOND);
+            this.refilled[index] = now;
+            if (available < 1d) {
+                this.tokens[index] = available;
+                return false;
+            }
+            this.tokens[index] = available - 1d;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * The only Bukkit listener of <b>InventoryAPI</b>, one per plugin, which routes inventory events to the owning {@link InventoryAPI}.
+ */
+public class Dispatcher implements Listener {
+
+    private static final Map<JavaPlugin, Dispatcher> instances = new HashMap<>();
+
+    /**
+     * Get the dispatcher of a plugin, registering it the first time.
+     * @param plugin The plugin which owns the inventories.
+     * @return The dispatcher of this plugin
+     */
+    static Dispatcher getInstance(final JavaPlugin plugin) {
+        Dispatcher dispatcher = instances.get(plugin);
+        if (dispatcher == null) {
+            dispatcher = new Dispatcher(plugin);
+            instances.put(plugin, dispatcher);
+            plugin.getServer().getPluginManager().registerEvents(dispatcher, plugin);
+        }
+        return dispatcher;
+    }
+
+    private final JavaPlugin plugin;
+    private final Map<Inventory, InventoryAPI> inventories;
+    private BukkitTask ticker;
+    private long tick;
+
+    private Dispatcher(final JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.inventories = new IdentityHashMap<>();
+    }
+
+    void register(final Inventory inventory, final InventoryAPI inventoryAPI) {
+        this.inventories.put(inventory, inventoryAPI);
+    }
+
+    void unregister(final Inventory inventory) {
+        this.inventories.remove(inventory);
+    }
+
+    /**
+     * Get the amount of inventories currently handled by this dispatcher.
+     * @return The amount of inventories, an integer
+     */
+    public int size() {
+        return this.inventories.size();
+    }
+
+    /**
+     * Get the current server tick, counted by a repeating task of the plugin, started at the first call.
+     * @return The current tick, a long
+     */
+    long getTick() {
+        if (this.ticker == null)
+            this.ticker = this.plugin.getServer().getScheduler().runTaskTimer(this.plugin, () -> this.tick++, 1L, 1L);
+        return this.tick;
+    }
+
+    private InventoryAPI get(final Inventory inventory) {
+        if (inventory == null)
+            return null;
+        return this.inventories.get(inventory);
+    }
+
+    @EventHandler
+    public void onClose(final InventoryCloseEvent e) {
+        InventoryAPI inventoryAPI = this.get(e.getView().getTopInventory());
+        if (inventoryAPI == null)
+            inventoryAPI = this.get(e.getInventory());
+        if (inventoryAPI != null)
+            inventoryAPI.onClose(e);
+    }
+
+    @EventHandler
+    public void onInteract(final InventoryClickEvent e) {
+        if (e.getView() == null)
+            return;
+        final InventoryAPI inventoryAPI = this.get(e.getView().getTopInventory());
+        if (inventoryAPI != null)
+            inventoryAPI.onInteract(e);
+    }
+
+    @EventHandler
+    public void onMove(final InventoryMoveItemEvent e) {
+        final InventoryAPI inventoryAPI = this.get(e.getSource());
+        if (inventoryAPI != null)
+            inventoryAPI.onMove(e);
+    }
+
+    @EventHandler
+    public void onDrag(final InventoryDragEvent e) {
+        final InventoryAPI inventoryAPI = this.get(e.getInventory());
+        if (inventoryAPI != null)
+            inventoryAPI.onDrag(e);
+    }
+
+    @EventHandler
+    public void onDisable(final PluginDisableEvent e) {
+        if (e.getPlugin() != this.plugin)
+            return;
+        MenuRegistry.remove(this.plugin);
+        final Scheduler scheduler = Scheduler.peek();
+        if (scheduler != null)
+            scheduler.disable(this.plugin);
+        final StorageFlusher flusher = StorageFlusher.peek();
+        if (flusher != null && !flusher.flush(10, TimeUnit.SECONDS))
+            this.plugin.getLogger().log(Level.WARNING, "Can't write every storage inventory of InventoryAPI before the plugin is disabled");
+        this.inventories.clear();
+        if (this.ticker != null) {
+            this.ticker.cancel();
+            this.ticker = null;
+        }
+        instances.remove(this.plugin);
+        Metrics.remove(this.plugin);
+    }
+
+    @Override
+    public String toString() {
+        return "Dispatcher{" +
+                "plugin=" + this.plugin +
+                ", inventories=" + this.inventories.size() +
+                '}';
+    }
+}
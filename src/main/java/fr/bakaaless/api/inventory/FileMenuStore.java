@@ -0,0 +1,183 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The default {@link MenuStore}: an append-only log per inventory, in a folder, named after the key of the inventory.
+ * <p>
+ * Each write appends one frame with the changed slots only, followed by its checksum, and forces it to the disk. When a log is
+ * read, the frames are replayed in order, and a frame cut by a crash is dropped with the end of the log. A log bigger than 1 MiB
+ * is compacted into a single frame.
+ */
+public class FileMenuStore implements MenuStore {
+
+    private static final long COMPACT_SIZE = 1 << 20;
+    private static final int CLEARED = -1;
+
+    private final File directory;
+
+    /**
+     * @param directory The folder of the logs, created if needed
+     */
+    public FileMenuStore(final File directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Map<Integer, ItemStack> load(final String key) throws IOException {
+        final Path path = this.path(key);
+        final Map<Integer, ItemStack> items = new HashMap<>();
+        if (!Files.exists(path))
+            return items;
+        final int valid = replay(Files.readAllBytes(path), items);
+        if (valid < Files.size(path))
+            try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+            }
+        return items;
+    }
+
+    @Override
+    public void write(final Map<String, Map<Integer, ItemStack>> changes) throws IOException {
+        Files.createDirectories(this.directory.toPath());
+        for (final Map.Entry<String, Map<Integer, ItemStack>> entry : changes.entrySet()) {
+            final Path path = this.path(entry.getKey());
+            try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                channel.write(ByteBuffer.wrap(frame(entry.getValue())));
+                channel.force(false);
+                if (channel.size() < COMPACT_SIZE)
+                    continue;
+            }
+            this.compact(path);
+        }
+    }
+
+    private void compact(final Path path) throws IOException {
+        final Map<Integer, ItemStack> items = new HashMap<>();
+        replay(Files.readAllBytes(path), items);
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (final FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(frame(items)));
+            channel.force(false);
+        }
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException exception) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Get the log of an inventory, named after the hexadecimal UTF-8 bytes of its key, so two keys never share a log, even on
+     * a case-insensitive file system.
+     * @param key The key of the inventory
+     * @return The path of the log
+     */
+    private Path path(final String key) {
+        final StringBuilder name = new StringBuilder();
+        for (final byte b : key.getBytes(StandardCharsets.UTF_8))
+            name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return new File(this.directory, name.append(".log").toString()).toPath();
+    }
+
+    private static byte[] frame(final Map<Integer, ItemStack> items) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(items.size());
+        for (final Map.Entry<Integer, ItemStack> entry : items.entrySet()) {
+            output.writeInt(entry.getKey());
+            if (entry.getValue() == null) {
+                output.writeInt(CLEARED);
+                continue;
+            }
+            final ByteArrayOutputStream item = new ByteArrayOutputStream();
+            try (final BukkitObjectOutputStream stream = new BukkitObjectOutputStream(item)) {
+                stream.writeObject(entry.getValue());
+            }
+            output.writeInt(item.size());
+            item.writeTo(output);
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        output.writeLong(crc.getValue());
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Apply the valid frames of a log to the items.
+     * @param log The content of the log
+     * @param items The items by slot to update
+     * @return The length of the valid frames, an integer
+     */
+    private static int replay(final byte[] log, final Map<Integer, ItemStack> items) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(log);
+        int valid = 0;
+        while (buffer.hasRemaining()) {
+            final Map<Integer, byte[]> frame = new HashMap<>();
+            try {
+                final int count = buffer.getInt();
+                for (int i = 0; i < count; i++) {
+                    final int slot = buffer.getInt();
+                    final int length = buffer.getInt();
+                    if (length == CLEARED) {
+                        frame.put(slot, null);
+                        continue;
+                    }
+                    if (length < 0 || length > buffer.remaining())
+                        throw new BufferUnderflowException();
+                    final byte[] item = new byte[length];
+                    buffer.get(item);
+                    frame.put(slot, item);
+                }
+                final CRC32 crc = new CRC32();
+                crc.update(log, valid, buffer.position() - valid);
+                if (buffer.getLong() != crc.getValue())
+                    break;
+            } catch (final BufferUnderflowException exception) {
+                break;
+            }
+            for (final Map.Entry<Integer, byte[]> entry : frame.entrySet())
+                if (entry.getValue() == null)
+                    items.remove(entry.getKey());
+                else
+                    items.put(entry.getKey(), read(entry.getValue()));
+            valid = buffer.position();
+        }
+        return valid;
+    }
+
+    private static ItemStack read(final byte[] bytes) throws IOException {
+        try (final BukkitObjectInputStream stream = new BukkitObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (ItemStack) stream.readObject();
+        } catch (final ClassNotFoundException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FileMenuStore{" +
+                "directory=" + this.directory +
+                '}';
+    }
+}
@@ -0,0 +1,133 @@
+package fr.bakaaless.api.inventory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of positive values, such as durations in nanoseconds, used by {@link MenuMetrics}.
+ * <p>
+ * Each power of two is split in 4 buckets, so the percentiles are at most 25% above the recorded values, for a fixed memory.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKETS = 62 * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+    Histogram() {
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0L);
+    }
+
+    /**
+     * Record a value. Can be called from any thread.
+     * @param value The value, negative values are recorded as 0
+     */
+    void record(final long value) {
+        final long clamped = Math.max(0L, value);
+        this.buckets.incrementAndGet(index(clamped));
+        this.count.increment();
+        this.sum.add(clamped);
+        this.max.accumulate(clamped);
+    }
+
+    private static int index(final long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        return (exponent - 1) * SUB_BUCKETS + (int) (value >>> (exponent - 2) & (SUB_BUCKETS - 1));
+    }
+
+    private static long upperBound(final int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+        final int shift = index / SUB_BUCKETS - 1;
+        return ((long) (SUB_BUCKETS + index % SUB_BUCKETS + 1) << shift) - 1;
+    }
+
+    /**
+     * Get the amount of recorded values.
+     * @return The amount of values, a long
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Get the mean of the recorded values.
+     * @return The mean, or 0 if there's no value
+     */
+    public double getMean() {
+        final long count = this.count.sum();
+        return count == 0 ? 0d : (double) this.sum.sum() / count;
+    }
+
+    /**
+     * Get the highest recorded value.
+     * @return The maximum, or 0 if there's no value
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Get a percentile of the recorded values, like 0.5 for the median or 0.99 for the 99th percentile.
+     * @param percentile The percentile, between 0 and 1
+     * @return The upper bound of the bucket of the percentile, or 0 if there's no value
+     */
+    public long getPercentile(final double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++)
+            total += this.buckets.get(i);
+        if (total == 0)
+            return 0;
+        final long rank = Math.max(1L, (long) Math.ceil(Math.min(1d, Math.max(0d, percentile)) * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.buckets.get(i);
+            if (seen >= rank)
+                return Math.min(upperBound(i), this.getMax());
+        }
+        return this.getMax();
+    }
+
+    /**
+     * Same as {@link #getPercentile(double)}, for durations recorded in nanoseconds.
+     * @param percentile The percentile, between 0 and 1
+     * @param unit The unit of the result
+     * @return The duration of the percentile
+     */
+    public double getPercentile(final double percentile, final TimeUnit unit) {
+        return (double) this.getPercentile(percentile) / unit.toNanos(1);
+    }
+
+    /**
+     * Forget every recorded value.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+            this.buckets.set(i, 0);
+        this.count.reset();
+        this.sum.reset();
+        this.max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram{" +
+                "count=" + this.getCount() +
+                ", mean=" + this.getMean() +
+                ", p50=" + this.getPercentile(0.5) +
+                ", p99=" + this.getPercentile(0.99) +
+                ", max=" + this.getMax() +
+                '}';
+    }
+}
@@ -2,9 +2,6 @@ package fr.bakaaless.api.inventory;
 
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
-import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.*;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
@@ -12,10 +9,22 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.logging.Level;
@@ -24,18 +33,41 @@ import java.util.stream.IntStream;
 /**
  * The main object of <b>InventoryAPI</b>, used to build inventories.
  */
-public class InventoryAPI implements Listener {
+public class InventoryAPI {
 
     private Inventory inventory;
+    private ItemStack[] rendered;
     private int size;
     private String title;
     private InventoryType type;
-    private List<ItemAPI> items;
+    private ItemTable items;
+    private final SlotMasks masks;
     private Consumer<InventoryAPI> function;
     private Consumer<InventoryCloseEvent> closeEvent;
     private Consumer<InventoryClickEvent> clickEvent;
     private boolean interactionCancel;
+    private final ClickLimiter limiter;
+    private double clickRate;
+    private int clickBurst;
+    private boolean coalesceClicks;
+    private boolean shared;
+    private boolean layered;
+    private boolean pooled;
+    private MenuStore store;
+    private String storageKey;
+    private ItemStack[] stored;
+    private boolean scanning;
+    private VirtualView view;
+    private final Set<UUID> viewers;
+    private final Map<UUID, Overlay> overlays;
+    private final Map<Inventory, Overlay> views;
+    private final Set<CompletableFuture<ItemStack>> loading;
+    private final Set<AsyncClick> actions;
+    private ItemStack placeholder;
+    private String id;
+    private MenuMetrics metrics;
     private boolean refreshed;
+    private int refreshInterval;
     private boolean build;
 
     private JavaPlugin plugin;
@@ -45,12 +77,35 @@ public class InventoryAPI implements Listener {
         this.size = 9;
         this.title = "";
         this.type = null;
-        this.items = new ArrayList<>();
+        this.items = new ItemTable(this.size);
         this.refreshed = false;
+        this.refreshInterval = 2;
         this.interactionCancel = false;
+        this.clickRate = 0;
+        this.clickBurst = 1;
+        this.coalesceClicks = false;
+        this.shared = false;
+        this.layered = false;
+        this.pooled = false;
+        this.store = null;
+        this.storageKey = null;
+        this.viewers = new LinkedHashSet<>();
+        this.overlays = new HashMap<>();
+        this.views = new IdentityHashMap<>();
+        this.loading = new HashSet<>();
+        this.limiter = new ClickLimiter();
+        this.actions = ConcurrentHashMap.newKeySet();
+        this.masks = new SlotMasks();
     }
 
     private InventoryAPI() {
+        this.viewers = new LinkedHashSet<>();
+        this.overlays = new HashMap<>();
+        this.views = new IdentityHashMap<>();
+        this.loading = new HashSet<>();
+        this.limiter = new ClickLimiter();
+        this.actions = ConcurrentHashMap.newKeySet();
+        this.masks = new SlotMasks();
     }
 
     /**
@@ -71,6 +126,17 @@ public class InventoryAPI implements Listener {
         return new InventoryAPI(JavaPlugin.getProvidingPlugin(plugin));
     }
 
+    /**
+     * Close every inventory of a plugin, for their viewers too. The inventories are already closed when your plugin is disabled, so
+     * it's only needed to close them before (reload of your menus...).
+     * @param plugin An instance of the main class of your plugin.
+     * @return The amount of closed inventories, an integer
+     */
+    public static int closeAll(final JavaPlugin plugin) {
+        final MenuRegistry registry = MenuRegistry.peek(plugin);
+        return registry == null ? 0 : registry.closeAll();
+    }
+
     /**
      * Set the size of your inventory. Can't be used if the inventory type isn't null.
      * @param size The size of the inventory (Multiple of 9, 54 at the maximum)
@@ -81,15 +147,32 @@ public class InventoryAPI implements Listener {
             this.plugin.getLogger().log(Level.WARNING, "Can't edit \"size\" option in InventoryAPI 'cause the inventory is already built");
             return this;
         }
-        if (this.size <= 0 || this.size % 9 != 0 || this.size >= 54) {
+        if (size <= 0 || size % 9 != 0 || size > 54) {
             plugin.getLogger().severe("This inventory can't have a size of " + size);
             return this;
         }
         if (this.inventory != null && this.size != size) {
             this.inventory.clear();
+            this.discard(this.inventory);
             this.inventory = generate();
         }
         this.size = size;
+        this.items.ensureCapacity(size);
+        return this;
+    }
+
+    /**
+     * Set the id of your inventory, which groups its {@link MenuMetrics} with the other inventories of the same id.
+     * @param id The id of your inventory, or null to only count it in the metrics of the plugin
+     * @return Your InventoryAPI object
+     */
+    public InventoryAPI setId(final String id) {
+        if (build) {
+            this.plugin.getLogger().log(Level.WARNING, "Can't edit \"id\" option in InventoryAPI 'cause the inventory is already built");
+            return this;
+        }
+        this.id = id;
+        this.metrics = null;
         return this;
     }
 
@@ -105,6 +188,7 @@ public class InventoryAPI implements Listener {
         }
         if (this.inventory != null && !this.title.equals(title)) {
             this.inventory.clear();
+            this.discard(this.inventory);
             this.inventory = generate();
         }
         this.title = title;
@@ -123,14 +207,17 @@ public class InventoryAPI implements Listener {
         }
         if (this.inventory != null && !this.type.equals(type)) {
             this.inventory.clear();
+            this.discard(this.inventory);
             this.inventory = generate();
         }
         this.type = type;
+        if (type != null)
+            this.items.ensureCapacity(type.getDefaultSize());
         return this;
     }
 
     /**
-     * Enable the refresh status (Every 2 ticks).
+     * Enable the refresh status (Every 2 ticks by default, see {@link #setRefreshInterval(int)}).
      * @param refreshed A boolean to enable/disable the refresh status
      * @return Your InventoryAPI object
      */
@@ -143,6 +230,105 @@ public class InventoryAPI implements Listener {
         return this;
     }
 
+    /**
+     * Set the interval of the refresh task, used for the refresh function and for the items which don't have their own interval.
+     * @param refreshInterval The interval in ticks, 0 to disable the periodic refresh
+     * @return Your InventoryAPI object
+     */
+    public InventoryAPI setRefreshInterval(final int refreshInterval) {
+        if (refreshInterval < 0) {
+            plugin.getLogger().severe("This inventory can't have a refresh interval of " + refreshInterval);
+            return this;
+        }
+        this.refreshInterval = refreshInterval;
+        return this;
+    }
+
+    /**
+     * Enable the shared mode: the inventory can be opened by many players with {@link #build(Player)}, its functions are computed
+     * once for all of them, and it's only stopped when the last viewer closes it.
+     * @param shared A boolean to enable/disable the shared mode
+     * @return Your InventoryAPI object
+     */
+    public InventoryAPI setShared(final boolean shared) {
+        if (build) {
+            this.plugin.getLogger().log(Level.WARNING, "Can't edit \"shared\" option in InventoryAPI 'cause the inventory is already built");
+            return this;
+        }
+        this.shared = shared;
+        return this;
+    }
+
+    /**
+     * Enable the layered mode: like the shared mode, but each viewer gets its own inventory, made of the shared items plus its
+     * personal {@link Overlay}. The shared items are still computed once for all of the viewers.
+     * @param layered A boolean to enable/disable the layered mode
+     * @return Your InventoryAPI object
+     */
+    public InventoryAPI setLayered(final boolean layered) {
+        if (build) {
+            this.plugin.getLogger().log(Level.WARNING, "Can't edit \"layered\" option in InventoryAPI 'cause the inventory is already built");
+            return this;
+        }
+        this.layered = layered;
+        return this;
+    }
+
+    /**
+     * Enable the pooled mode: the Bukkit inventories are taken from the {@link InventoryPool} when the inventory is built, and
+     * given back when it's stopped. Useful for the menus opened very often with the same type, size and title.
+     * @param pooled A boolean to enable/disable the pooled mode
+     * @return Your InventoryAPI object
+     */
+    public InventoryAPI setPooled(final boolean pooled) {
+        if (build) {
+            this.plugin.getLogger().log(Level.WARNING, "Can't edit \"pooled\" option in InventoryAPI 'cause the inventory is already built");
+            return this;
+        }
+        this.pooled = pooled;
+        return this;
+    }
+
+    /**
+     * Enable the storage mode: the free slots, without any item of the inventory, are filled with the items stored under the key
+     * when the inventory is built, and the slots changed by the players are written behind by the {@link StorageFlusher}. The
+     * interactions are cancelled until the stored items are loaded. The personal slots of the layered mode aren't stored.
+     * @param store The {@link MenuStore} of the items, like a {@link FileMenuStore}, or null to disable the storage mode
+     * @param key The key of the items in the store, like the unique id of the player
+     * @return Your InventoryAPI object
+     */
+    public InventoryAPI setStorage(final MenuStore store, final String key) {
+        if (build) {
+            this.plugin.getLogger().log(Level.WARNING, "Can't edit \"storage\" option in InventoryAPI 'cause the inventory is already built");
+            return this;
+        }
+        this.store = store;
+        this.storageKey = key;
+        return this;
+    }
+
+    /**
+     * Get the personal overlay of a player, creating it if needed. Only used in layered mode, and dropped when the player closes
+     * the inventory.
+     * @param player The viewer
+     * @return The {@link Overlay} of this player
+     */
+    public Overlay overlay(final Player player) {
+        if (!this.layered)
+            this.plugin.getLogger().log(Level.WARNING, "Overlays of InventoryAPI are only shown when the layered mode is enabled");
+        return this.overlays.computeIfAbsent(player.getUniqueId(), uuid -> new Overlay(this, uuid));
+    }
+
+    /**
+     * Define the placeholder shown in the slots of the asynchronous items (see {@link ItemLoader}) which don't have their own.
+     * @param placeholder The ItemStack shown until the items are loaded, or null to leave the slots empty.
+     * @return Your InventoryAPI object
+     */
+    public InventoryAPI setPlaceholder(final ItemStack placeholder) {
+        this.placeholder = placeholder;
+        return this;
+    }
+
     /**
      * Define all of the content of the refresh function.
      * @param function A consumer, that will contains all of your modifications.
@@ -187,6 +373,31 @@ public class InventoryAPI implements Listener {
         return this;
     }
 
+    /**
+     * Limit the clicks of each viewer in your inventory. The clicks above the limit are cancelled before any function or
+     * action runs. A slot can have its own limit too, see {@link ItemAPI#setClickLimit(double, int)}.
+     * @param clicksPerSecond The clicks per second allowed for each viewer, 0 to disable the limit
+     * @param burst The clicks allowed at once, at least 1
+     * @return Your InventoryAPI object
+     */
+    public InventoryAPI setClickLimit(final double clicksPerSecond, final int burst) {
+        this.clickRate = Math.max(0, clicksPerSecond);
+        this.clickBurst = Math.max(1, burst);
+        this.limiter.clear();
+        return this;
+    }
+
+    /**
+     * Coalesce the clicks of a viewer on a slot: the clicks following the first one during the same tick are cancelled before
+     * any function or action runs.
+     * @param coalesceClicks A boolean to enable/disable the coalescing
+     * @return Your InventoryAPI object
+     */
+    public InventoryAPI setCoalesceClicks(final boolean coalesceClicks) {
+        this.coalesceClicks = coalesceClicks;
+        return this;
+    }
+
     /**
      * Get the size of your inventory.
      * @return The size of your Inventory, an <b>integer</b>.
@@ -195,6 +406,25 @@ public class InventoryAPI implements Listener {
         return this.size;
     }
 
+    /**
+     * Get the id of your inventory.
+     * @return The id of your inventory, or null.
+     */
+    @Nullable
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Get the metrics of the inventories with the same id as your inventory.
+     * @return The {@link MenuMetrics} of this id, or of the plugin if the id is null
+     */
+    public MenuMetrics getMetrics() {
+        if (this.metrics == null)
+            this.metrics = Metrics.getInstance(this.plugin).getMenu(this.id);
+        return this.metrics;
+    }
+
     /**
      * Get the title of your inventory.
      * @return The title of your Inventory, a <b>String</b>.
@@ -213,10 +443,16 @@ public class InventoryAPI implements Listener {
     }
 
     /**
-     * Get the list of your inventory's items
+     * Get the list of your inventory's items, ordered by slot. The list is a read-only view of the inventory: use
+     * {@link #addItem(ItemAPI)} and {@link #clearSlot(int)} to change the items. The items applied from a {@link Template} are
+     * shared with it, so use {@link #getItem(int)} to get an item you want to modify.
      * @return The items in your inventory, a list of {@link ItemAPI}
      */
     public List<ItemAPI> getItems() {
+        return this.items.view();
+    }
+
+    ItemTable getTable() {
         return this.items;
     }
 
@@ -228,6 +464,79 @@ public class InventoryAPI implements Listener {
         return this.refreshed;
     }
 
+    /**
+     * Get the interval of the refresh task.
+     * @return The interval in ticks, an integer.
+     */
+    public int getRefreshInterval() {
+        return this.refreshInterval;
+    }
+
+    /**
+     * Get the boolean of the shared mode.
+     * @return A boolean, true if enabled, else false.
+     */
+    public boolean isShared() {
+        return this.shared;
+    }
+
+    /**
+     * Get the boolean of the layered mode.
+     * @return A boolean, true if enabled, else false.
+     */
+    public boolean isLayered() {
+        return this.layered;
+    }
+
+    /**
+     * Get the boolean of the pooled mode.
+     * @return A boolean, true if enabled, else false.
+     */
+    public boolean isPooled() {
+        return this.pooled;
+    }
+
+    /**
+     * Get the store of the storage mode.
+     * @return The {@link MenuStore}, or null if the storage mode is disabled.
+     */
+    public MenuStore getStore() {
+        return this.store;
+    }
+
+    /**
+     * Get the key of the items in the store of the storage mode.
+     * @return The key, or null if the storage mode is disabled.
+     */
+    public String getStorageKey() {
+        return this.storageKey;
+    }
+
+    /**
+     * Get the overlays of the current viewers, in layered mode.
+     * @return A read-only collection of {@link Overlay}
+     */
+    public Collection<Overlay> getOverlays() {
+        return Collections.unmodifiableCollection(this.views.values());
+    }
+
+    /**
+     * Get the players who opened the inventory with {@link #build(Player)} and didn't close it yet.
+     * @return A read-only set of their unique ids
+     */
+    public Set<UUID> getViewers() {
+        return Collections.unmodifiableSet(this.viewers);
+    }
+
+    /**
+     * Get the placeholder of the asynchronous items.
+     * @return The placeholder, or null.
+     */
+    @Nullable
+    public ItemStack getPlaceholder() {
+        return this.placeholder;
+    }
+
     /**
      * Get the {@link JavaPlugin} which is used to create the inventory.
      * @return the {@link JavaPlugin}
@@ -244,6 +553,21 @@ public class InventoryAPI implements Listener {
         return this.inventory;
     }
 
+    /**
+     * Check if a player views the inventory, or one of its overlays.
+     * @return true if the inventory is viewed, else false
+     */
+    boolean isViewed() {
+        if (this.inventory == null)
+            return false;
+        if (!this.inventory.getViewers().isEmpty())
+            return true;
+        for (final Inventory inventory : this.views.keySet())
+            if (!inventory.getViewers().isEmpty())
+                return true;
+        return false;
+    }
+
     /**
      * Get the consumer of the refresh task of your Inventory.
      * @return A consumer, that corresponds to the refresh task.
@@ -276,19 +600,37 @@ public class InventoryAPI implements Listener {
         return this.interactionCancel;
     }
 
+    /**
+     * Get the clicks per second allowed for each viewer.
+     * @return The clicks per second, 0 if there's no limit.
+     */
+    public double getClickRate() {
+        return this.clickRate;
+    }
+
+    /**
+     * Get the clicks allowed at once for each viewer.
+     * @return The burst, an integer
+     */
+    public int getClickBurst() {
+        return this.clickBurst;
+    }
+
+    /**
+     * Get the boolean of the click coalescing.
+     * @return A boolean, true if enabled, else false.
+     */
+    public boolean isCoalesceClicks() {
+        return this.coalesceClicks;
+    }
+
     /**
      * Clear a slot of your inventory
      * @param slot The id of the slot, an integer
      * @return Your InventoryAPI object
      */
     public InventoryAPI clearSlot(final int slot) {
-        Optional<ItemAPI> itemAPI = Optional.empty();
-        for (final Iterator<ItemAPI> it = this.items.iterator(); it.hasNext(); itemAPI = Optional.ofNullable(it.next())) {
-            itemAPI.ifPresent(item -> {
-                if (item.getSlot() == slot)
-                    it.remove();
-            });
-        }
+        this.items.remove(slot);
         return this;
     }
 
@@ -298,7 +640,37 @@ public class InventoryAPI implements Listener {
      * @return An {@link ItemAPI} object if slot is set, else null.
      */
     public Optional<ItemAPI> getItem(final int slot) {
-        return this.items.stream().filter(item -> item.getSlot() == slot).findFirst();
+        return Optional.ofNullable(this.own(slot));
+    }
+
+    /**
+     * Get the item of a slot, copied first if it's shared with a {@link Template}, so it can be modified.
+     * @param slot The id of the slot, an integer
+     * @return The ItemAPI owned by this inventory, or null
+     */
+    private ItemAPI own(final int slot) {
+        ItemAPI itemAPI = this.items.get(slot);
+        if (itemAPI != null && itemAPI.isShared()) {
+            itemAPI = itemAPI.clone();
+            this.items.put(itemAPI);
+        }
+        return itemAPI;
+    }
+
+    /**
+     * Invalidate the item at a slot, so its function will be computed again at the next tick.
+     * @param slot The id of the slot, an integer
+     * @return Your InventoryAPI object
+     */
+    public InventoryAPI invalidate(final int slot) {
+        final ItemAPI itemAPI = this.items.get(slot);
+        if (itemAPI != null)
+            itemAPI.invalidate();
+        return this;
+    }
+
+    ItemAPI getItemAPI(final int slot) {
+        return this.items.get(slot);
     }
 
     /**
@@ -371,14 +743,86 @@ public class InventoryAPI implements Listener {
         return this.addItem(new ItemAPI(slot, function, cancelled, consumer));
     }
 
+    /**
+     * Set an animated item in your inventory. The frames are advanced by the refresh task, see {@link #setRefresh(boolean)}.
+     * @param slot The id of the slot, an integer
+     * @param animation The {@link Animation} to show
+     * @param cancelled The boolean to enable/disable the interaction protection for this slot
+     * @param consumer A lambda expression that correspond to the executed code when item is clicked
+     * @return Your InventoryAPI object
+     */
+    public InventoryAPI addItem(final int slot, final Animation animation, final boolean cancelled, final Consumer<InventoryClickEvent> consumer) {
+        return this.addItem(new ItemAPI(slot, animation, 0, cancelled, consumer));
+    }
+
+    /**
+     * Set an animation in a group of slots of your inventory. The frames are advanced by the refresh task, see {@link #setRefresh(boolean)}.
+     * @param slots The slots of the group
+     * @param animation The {@link Animation} to show
+     * @param shift The amount of frames each slot is ahead of the previous slot of the group, 0 to show the same frame everywhere
+     * @param cancelled The boolean to enable/disable the interaction protection for these slots
+     * @param consumer A lambda expression that correspond to the executed code when an item is clicked
+     * @return Your InventoryAPI object
+     */
+    public InventoryAPI addAnimation(final int[] slots, final Animation animation, final int shift, final boolean cancelled, final Consumer<InventoryClickEvent> consumer) {
+        for (int i = 0; i < slots.length; i++)
+            this.addItem(new ItemAPI(slots[i], animation, i * shift, cancelled, consumer));
+        return this;
+    }
+
+    /**
+     * Same as {@link #setBorder(ItemStack, boolean)}, except the border is animated.
+     * @param animation The {@link Animation} to show
+     * @param shift The amount of frames each slot is ahead of the previous slot of the border, 0 to show the same frame everywhere
+     * @param cancelled The boolean to enable/disable the interaction protection for this slot
+     * @return Your InventoryAPI object
+     */
+    public InventoryAPI setBorder(final Animation animation, final int shift, final boolean cancelled) {
+        return this.addAnimation(this.getBorders(), animation, shift, cancelled, inventoryClickEvent -> {});
+    }
+
+    /**
+     * Set an item loaded asynchronously in a slot of your inventory. The inventory is opened with the placeholder in this slot,
+     * and the loaded ItemStack is patched in when the future completes. The future is cancelled if the inventory is stopped first.
+     * @param slot The id of the slot, an integer
+     * @param loader A loader that return a future of the ItemStack, started when the inventory is built
+     * @param placeholder The ItemStack shown until the future completes, or null to use {@link #setPlaceholder(ItemStack)}
+     * @param cancelled The boolean to enable/disable the interaction protection for this slot
+     * @param consumer A lambda expression that correspond to the executed code when item is clicked
+     * @return Your InventoryAPI object
+     */
+    public InventoryAPI addItem(final int slot, final ItemLoader loader, final ItemStack placeholder, final boolean cancelled, final Consumer<InventoryClickEvent> consumer) {
+        return this.addItem(new ItemAPI(slot, loader, placeholder, cancelled, consumer));
+    }
+
+    /**
+     * Set an item with an asynchronous action in your inventory. The action runs on a worker thread, after the previous actions
+     * of the same player, and is cancelled if the inventory is stopped before it starts.
+     * @param slot The id of the slot, an integer
+     * @param itemStack The ItemStack to set
+     * @param cancelled The boolean to enable/disable the interaction protection for this slot
+     * @param action A lambda expression that correspond to the code executed on a worker thread when item is clicked, see {@link AsyncClick}
+     * @return Your InventoryAPI object
+     */
+    public InventoryAPI addAsyncItem(final int slot, final ItemStack itemStack, final boolean cancelled, final Consumer<AsyncClick> action) {
+        final ItemAPI itemAPI = new ItemAPI(slot, itemStack, cancelled, inventoryClickEvent -> {});
+        itemAPI.setAsyncConsumer(action);
+        return this.addItem(itemAPI);
+    }
+
     /**
      * Set an item in your inventory, using {@link ItemAPI}
      * @param itemAPI An {@link ItemAPI}
      * @return Your InventoryAPI object
      */
     public InventoryAPI addItem(final ItemAPI itemAPI) {
-        this.clearSlot(itemAPI.getSlot());
-        this.items.add(itemAPI);
+        if (itemAPI.getSlot() < 0) {
+            this.plugin.getLogger().log(Level.WARNING, "Can't add an item in InventoryAPI at slot " + itemAPI.getSlot());
+            return this;
+        }
+        this.items.put(itemAPI);
+        if (this.refreshed)
+            Scheduler.getInstance().schedule(this, itemAPI);
         return this;
     }
 
@@ -451,70 +895,436 @@ public class InventoryAPI implements Listener {
         return this;
     }
 
+    /**
+     * Show the elements of a source, page by page, in some slots of your inventory.
+     * @param slots The slots where the elements will be shown
+     * @param source The indexed source of the elements
+     * @param renderer A function that return the ItemStack of an element
+     * @param consumer A lambda expression that correspond to the executed code when an element is clicked
+     * @param <T> The type of the elements
+     * @return The {@link Pagination}, showing the first page
+     */
+    public <T> Pagination<T> paginate(final int[] slots, final PageSource<T> source, final Function<T, ItemStack> renderer, final BiConsumer<T, InventoryClickEvent> consumer) {
+        return new Pagination<>(this, slots, source, renderer, consumer).setPage(0);
+    }
+
+    /**
+     * Show a large container in the first rows of your inventory, through a window which can scroll over it. The slots of the
+     * window mustn't have any item, the other rows can hold the buttons to scroll. Not available in layered mode.
+     * @param container The {@link VirtualContainer} to show
+     * @param rows The amount of rows of the window
+     * @return The {@link VirtualView}, showing the first rows of the container
+     */
+    public VirtualView scroll(final VirtualContainer container, final int rows) {
+        if (this.view != null)
+            this.view.close();
+        this.view = new VirtualView(this, container, Math.max(1, Math.min(rows, this.size / 9)));
+        if (this.inventory != null)
+            this.view.open(this.inventory);
+        return this.view;
+    }
+
+    /**
+     * Get the scrolling window of your inventory.
+     * @return The {@link VirtualView}, or null if there's no window
+     */
+    public VirtualView getView() {
+        return this.view;
+    }
+
+    /**
+     * Apply a template to your inventory. An empty inventory directly shares the table of the template, which is only copied when
+     * the inventory is modified. Only the items with a function are copied.
+     * @param template The {@link Template} to apply
+     * @return Your InventoryAPI object
+     */
     public InventoryAPI applyTemplate(final Template template) {
-        template.getItems().forEach(item ->
-                this.addItem(item.clone())
-        );
+        if (this.items.size() == 0)
+            this.items = template.share();
+        else
+            template.getItems().forEach(this.items::put);
+        final BitSet dynamic = template.getDynamicSlots();
+        for (int slot = dynamic.nextSetBit(0); slot >= 0; slot = dynamic.nextSetBit(slot + 1))
+            this.addItem(template.getItem(slot).copy());
         return this;
     }
 
+    /**
+     * Compile the current items of your inventory into a {@link Template}.
+     * @return A new Template
+     */
     public Template generateTemplate() {
-        return new Template(this.getItems());
+        return new Template(this.items.view());
     }
 
     /**
-     * Build and open the inventory to a player
+     * Build and open the inventory to a player. In shared mode, an already built inventory is only opened to the new viewer.
      * @param player The player to open the inventory
      */
     public void build(final Player player) {
+        final long start = Metrics.start();
         this.build = true;
         if (this.inventory == null) {
+            this.getMetrics().opened(1);
             this.inventory = generate();
-            if (this.function != null)
-                this.function.accept(this);
-            this.items.forEach(itemAPI -> {
-                if (this.inventory.getSize() <= itemAPI.getSlot())
-                    return;
-                itemAPI.refresh(this);
-                this.inventory.setItem(itemAPI.getSlot(), itemAPI.getItem());
-            });
-            player.openInventory(this.inventory);
+            this.update();
             if (this.refreshed)
                 Scheduler.getInstance().add(this);
-            plugin.getServer().getPluginManager().registerEvents(this, this.plugin);
+            Dispatcher.getInstance(this.plugin).register(this.inventory, this);
+            if (this.store != null)
+                this.loadStorage();
+            if (this.view != null)
+                this.view.open(this.inventory);
+            if (this.layered)
+                this.openOverlay(player);
+            else {
+                this.viewers.add(player.getUniqueId());
+                player.openInventory(this.inventory);
+                MenuRegistry.getInstance(this.plugin).track(this, player);
+            }
+        }
+        else if (this.layered && !this.viewers.contains(player.getUniqueId()))
+            this.openOverlay(player);
+        else if (this.shared && this.viewers.add(player.getUniqueId())) {
+            player.openInventory(this.inventory);
+            MenuRegistry.getInstance(this.plugin).track(this, player);
         }
-        else {
-            if (this.function != null)
-                this.function.accept(this);
-            this.items.forEach(itemAPI -> {
-                if (this.inventory.getSize() <= itemAPI.getSlot())
+        else
+            this.update();
+        final Scheduler scheduler = Scheduler.peek();
+        if (this.refreshed && scheduler != null)
+            scheduler.resume(this);
+        this.getMetrics().built(start);
+    }
+
+    /**
+     * Open the inventory to many players, spreading the openings over several ticks. The inventory is computed once and shared
+     * by the players, so the shared mode is enabled if the layered mode isn't.
+     * @param players The players to open the inventory
+     * @param budget The time which can be spent opening the inventory at each tick, at least one player is served per tick
+     * @param unit The unit of the budget
+     * @return The {@link BulkOpen} to follow the progress
+     */
+    public BulkOpen buildAll(final Collection<? extends Player> players, final long budget, final TimeUnit unit) {
+        final BulkOpen bulkOpen = new BulkOpen(this, players, unit.toNanos(Math.max(0, budget)));
+        if (!this.shared && !this.layered) {
+            if (this.build) {
+                this.plugin.getLogger().log(Level.WARNING, "Can't open InventoryAPI to many players 'cause the inventory is already built without the shared mode");
+                bulkOpen.getFuture().completeExceptionally(new IllegalStateException("The inventory isn't shared"));
+                return bulkOpen;
+            }
+            this.shared = true;
+        }
+        bulkOpen.start();
+        return bulkOpen;
+    }
+
+    private void openOverlay(final Player player) {
+        this.viewers.add(player.getUniqueId());
+        final Overlay overlay = this.overlays.computeIfAbsent(player.getUniqueId(), uuid -> new Overlay(this, uuid));
+        final Inventory inventory = generate();
+        overlay.setInventory(inventory);
+        overlay.getTable().view().forEach(itemAPI -> {
+            if (inventory.getSize() > itemAPI.getSlot())
+                this.refresh(itemAPI, overlay);
+        });
+        this.views.put(inventory, overlay);
+        this.render(overlay);
+        if (this.refreshed)
+            overlay.getItems().forEach(itemAPI -> Scheduler.getInstance().schedule(this, overlay, itemAPI));
+        Dispatcher.getInstance(this.plugin).register(inventory, this);
+        player.openInventory(inventory);
+        MenuRegistry.getInstance(this.plugin).track(this, player);
+    }
+
+    private void closeOverlay(final Overlay overlay) {
+        this.views.remove(overlay.getInventory());
+        this.overlays.remove(overlay.getViewer());
+        Dispatcher.getInstance(this.plugin).unregister(overlay.getInventory());
+        this.discard(overlay.getInventory());
+        overlay.setInventory(null);
+        new ArrayList<>(overlay.getLoading()).forEach(future -> future.cancel(true));
+        overlay.getLoading().clear();
+    }
+
+    private void update() {
+        if (this.function != null)
+            this.function.accept(this);
+        this.items.view().forEach(itemAPI -> {
+            if (this.inventory.getSize() <= itemAPI.getSlot())
+                return;
+            this.refresh(itemAPI, null);
+        });
+        this.views.values().forEach(overlay -> overlay.getTable().view().forEach(itemAPI -> {
+            if (this.inventory.getSize() > itemAPI.getSlot())
+                this.refresh(itemAPI, overlay);
+        }));
+        this.render();
+    }
+
+    /**
+     * Refresh an item, and start to load it if it's asynchronous. The loaded ItemStack is applied on the main thread, if the
+     * item is still in the inventory.
+     * @param itemAPI The item to refresh
+     * @param overlay The overlay of the item, or null for a shared item
+     */
+    private void refresh(final ItemAPI itemAPI, final Overlay overlay) {
+        final Object argument = overlay == null ? this : overlay;
+        if (itemAPI.getAnimation() != null)
+            itemAPI.refresh(argument);
+        else if (itemAPI.getFunction() != null) {
+            final long start = Metrics.start();
+            itemAPI.refresh(argument);
+            this.getMetrics().refreshed(start);
+        }
+        final CompletableFuture<ItemStack> future = itemAPI.load(argument);
+        if (future == null)
+            return;
+        if (this.placeholder != null && itemAPI.getItem().getType() == Material.AIR)
+            itemAPI.setItem(this.placeholder);
+        final Set<CompletableFuture<ItemStack>> loading = overlay == null ? this.loading : overlay.getLoading();
+        loading.add(future);
+        future.whenComplete((itemStack, throwable) -> {
+            if (!this.plugin.isEnabled())
+                return;
+            this.plugin.getServer().getScheduler().runTask(this.plugin, () -> {
+                loading.remove(future);
+                if (future.isCancelled() || this.inventory == null)
+                    return;
+                if (throwable != null) {
+                    this.plugin.getLogger().log(Level.WARNING, "Can't load the item at slot " + itemAPI.getSlot() + " in InventoryAPI", throwable);
+                    return;
+                }
+                final ItemTable table = overlay == null ? this.items : overlay.getTable();
+                if (overlay != null && overlay.getInventory() == null || table.get(itemAPI.getSlot()) != itemAPI)
                     return;
-                itemAPI.refresh(this);
-                this.inventory.setItem(itemAPI.getSlot(), itemAPI.getItem());
+                itemAPI.setItem(itemStack);
+                this.render();
             });
+        });
+    }
+
+    /**
+     * Push in the inventory only the slots whose item changed since the last render, and clear the slots which lost their item.
+     * @return The amount of slots which have been pushed, an integer
+     */
+    int render() {
+        if (this.inventory == null)
+            return 0;
+        final int size = this.inventory.getSize();
+        if (this.rendered == null || this.rendered.length != size)
+            this.rendered = new ItemStack[size];
+        int pushed = 0;
+        for (int slot = 0; slot < size; slot++) {
+            final ItemAPI itemAPI = this.items.get(slot);
+            ItemStack itemStack = itemAPI == null ? null : itemAPI.getItem();
+            if (itemStack != null && itemStack.getType() == Material.AIR)
+                itemStack = null;
+            final ItemStack previous = this.rendered[slot];
+            if (itemStack == null ? previous == null : itemStack.equals(previous))
+                continue;
+            this.inventory.setItem(slot, itemStack);
+            this.rendered[slot] = itemStack == null || itemAPI.getAnimation() != null ? itemStack : itemStack.clone();
+            pushed++;
         }
+        for (final Overlay overlay : this.views.values())
+            pushed += this.render(overlay);
+        this.getMetrics().pushed(pushed);
+        return pushed;
+    }
+
+    /**
+     * Push in the inventory of an overlay the personal items which changed, and the shared items, already rendered in the base
+     * inventory, which changed. Shared items are compared by reference, so a viewer only costs its personal slots.
+     * @param overlay The overlay to render
+     * @return The amount of slots which have been pushed, an integer
+     */
+    private int render(final Overlay overlay) {
+        final Inventory inventory = overlay.getInventory();
+        if (inventory == null || this.rendered == null)
+            return 0;
+        final int size = Math.min(inventory.getSize(), this.rendered.length);
+        final ItemStack[] rendered = overlay.getRendered(size);
+        int pushed = 0;
+        for (int slot = 0; slot < size; slot++) {
+            final ItemAPI itemAPI = overlay.getTable().get(slot);
+            final ItemStack previous = rendered[slot];
+            if (itemAPI == null) {
+                if (previous == this.rendered[slot])
+                    continue;
+                inventory.setItem(slot, this.rendered[slot]);
+                rendered[slot] = this.rendered[slot];
+                pushed++;
+                continue;
+            }
+            ItemStack itemStack = itemAPI.getItem();
+            if (itemStack != null && itemStack.getType() == Material.AIR)
+                itemStack = null;
+            if (itemStack == null ? previous == null : itemStack.equals(previous))
+                continue;
+            inventory.setItem(slot, itemStack);
+            rendered[slot] = itemStack == null || itemAPI.getAnimation() != null ? itemStack : itemStack.clone();
+            pushed++;
+        }
+        return pushed;
+    }
+
+    /**
+     * Check if an inventory is the base inventory or the inventory of an overlay of this InventoryAPI.
+     * @param inventory The inventory to check
+     * @return true if the inventory belongs to this InventoryAPI, else false
+     */
+    boolean owns(final Inventory inventory) {
+        return inventory != null && (inventory.equals(this.inventory) || this.views.containsKey(inventory));
+    }
+
+    private ItemAPI resolve(final Overlay overlay, final int slot) {
+        if (overlay != null) {
+            final ItemAPI itemAPI = overlay.getTable().get(slot);
+            if (itemAPI != null)
+                return itemAPI;
+        }
+        return this.items.get(slot);
     }
 
     /**
      * Stop the refresh method for this inventory
      */
     public void stop() {
-        HandlerList.unregisterAll(this);
+        if (this.view != null)
+            this.view.close();
+        if (this.store != null && this.inventory != null)
+            this.flushStorage();
+        if (this.inventory != null) {
+            Dispatcher.getInstance(this.plugin).unregister(this.inventory);
+            MenuRegistry.getInstance(this.plugin).untrack(this);
+            this.discard(this.inventory);
+            this.getMetrics().opened(-1);
+        }
+        new ArrayList<>(this.views.values()).forEach(this::closeOverlay);
+        new ArrayList<>(this.loading).forEach(future -> future.cancel(true));
+        this.loading.clear();
+        this.actions.forEach(AsyncClick::cancel);
+        this.actions.clear();
+        this.limiter.clear();
         if (this.refreshed)
             Scheduler.getInstance().remove(this);
         this.inventory = null;
+        this.rendered = null;
+        this.stored = null;
+        this.viewers.clear();
         this.build = false;
     }
 
+    /**
+     * Forget a viewer who doesn't view the inventory anymore, without close event.
+     * @param viewer The unique id of the player
+     */
+    void forget(final UUID viewer) {
+        if (!this.viewers.remove(viewer))
+            return;
+        this.limiter.remove(viewer);
+        final Overlay overlay = this.overlays.get(viewer);
+        if (overlay != null && overlay.getInventory() != null)
+            this.closeOverlay(overlay);
+    }
+
+    /**
+     * Fill the free slots with the stored items, once they are loaded by the storage thread.
+     */
+    private void loadStorage() {
+        final Inventory inventory = this.inventory;
+        StorageFlusher.getInstance().load(this.store, this.storageKey).whenComplete((items, throwable) -> {
+            if (!this.plugin.isEnabled())
+                return;
+            this.plugin.getServer().getScheduler().runTask(this.plugin, () -> {
+                if (this.inventory != inventory)
+                    return;
+                if (throwable != null) {
+                    this.plugin.getLogger().log(Level.WARNING, "Can't load the storage '" + this.storageKey + "' of InventoryAPI", throwable);
+                    return;
+                }
+                this.stored = new ItemStack[inventory.getSize()];
+                items.forEach((slot, itemStack) -> {
+                    if (slot < 0 || slot >= inventory.getSize() || this.items.get(slot) != null || this.view != null && this.view.contains(slot))
+                        return;
+                    inventory.setItem(slot, itemStack);
+                    this.stored[slot] = itemStack.clone();
+                });
+            });
+        });
+    }
+
+    /**
+     * Compare the free slots with the stored items at the next tick, once the click or the drag is done.
+     */
+    private void scan() {
+        if (this.scanning)
+            return;
+        this.scanning = true;
+        this.plugin.getServer().getScheduler().runTask(this.plugin, () -> {
+            this.scanning = false;
+            if (this.inventory != null)
+                this.flushStorage();
+        });
+    }
+
+    /**
+     * Queue the free slots which differ from the stored items in the {@link StorageFlusher}.
+     */
+    private void flushStorage() {
+        if (this.stored == null)
+            return;
+        Map<Integer, ItemStack> changes = null;
+        for (int slot = 0; slot < this.stored.length; slot++) {
+            if (this.items.get(slot) != null || this.view != null && this.view.contains(slot))
+                continue;
+            ItemStack itemStack = this.inventory.getItem(slot);
+            if (itemStack != null && itemStack.getType() == Material.AIR)
+                itemStack = null;
+            final ItemStack previous = this.stored[slot];
+            if (itemStack == null ? previous == null : itemStack.equals(previous))
+                continue;
+            if (changes == null)
+                changes = new HashMap<>();
+            changes.put(slot, itemStack == null ? null : itemStack.clone());
+        }
+        if (changes != null && StorageFlusher.getInstance().submit(this.store, this.storageKey, changes))
+            changes.forEach((slot, itemStack) -> this.stored[slot] = itemStack);
+    }
+
+    void finished(final AsyncClick click) {
+        this.actions.remove(click);
+    }
+
     private Inventory generate() {
+        if (this.pooled)
+            return InventoryPool.getInstance().acquire(this.plugin.getServer(), this.type, this.size, this.title);
         if (this.type == null)
             return this.plugin.getServer().createInventory(null, this.size, this.title);
         else
             return this.plugin.getServer().createInventory(null, this.type, this.title);
     }
 
-    @EventHandler
-    public void onClose(final InventoryCloseEvent e) {
+    private void discard(final Inventory inventory) {
+        if (this.pooled)
+            InventoryPool.getInstance().release(inventory, this.type, this.title);
+    }
+
+    void onClose(final InventoryCloseEvent e) {
+        if (this.shared || this.layered) {
+            if (!this.viewers.remove(e.getPlayer().getUniqueId()))
+                return;
+            this.limiter.remove(e.getPlayer().getUniqueId());
+            final Overlay overlay = this.views.get(e.getView().getTopInventory());
+            if (overlay != null)
+                this.closeOverlay(overlay);
+            if (this.closeEvent != null)
+                this.closeEvent.accept(e);
+            if (this.viewers.isEmpty())
+                this.stop();
+            return;
+        }
         if (e.getView().getTopInventory().equals(this.inventory)) {
             if (this.closeEvent != null)
                 this.closeEvent.accept(e);
@@ -529,29 +1339,68 @@ public class InventoryAPI implements Listener {
         }
     }
 
-    @EventHandler
-    public void onInteract(final InventoryClickEvent e) {
+    void onInteract(final InventoryClickEvent e) {
+        final long start = Metrics.start();
+        this.interact(e);
+        this.getMetrics().clicked(start);
+    }
+
+    private void interact(final InventoryClickEvent e) {
         if (e.getView() == null || e.getView().getTopInventory() == null)
             return;
-        if (e.getView().getTopInventory().equals(this.inventory))
+        if (!this.allow(e)) {
+            e.setCancelled(true);
+            return;
+        }
+        if (this.store != null) {
+            if (this.stored == null) {
+                e.setCancelled(true);
+                return;
+            }
+            this.scan();
+        }
+        if (this.view != null) {
+            if (!this.view.allow(e)) {
+                e.setCancelled(true);
+                return;
+            }
+            this.view.scan();
+        }
+        if (this.owns(e.getView().getTopInventory()))
             if (this.clickEvent != null)
                 this.clickEvent.accept(e);
         if (e.getClickedInventory() == null)
             return;
-        if (!e.getClickedInventory().equals(this.inventory))
+        if (!this.owns(e.getClickedInventory()))
             return;
         e.setCancelled(this.interactionCancel);
-        final AtomicBoolean slotRegister = new AtomicBoolean(false);
-        this.items.forEach(itemAPI -> {
-            if (e.getSlot() != itemAPI.getSlot())
-                return;
-            slotRegister.set(true);
+        final Overlay overlay = this.views.get(e.getClickedInventory());
+        final SlotMasks masks = this.masks(overlay);
+        if (masks.isRegistered(e.getSlot())) {
             if (e.getCurrentItem() == null)
                 return;
-            e.setCancelled(itemAPI.isCancelled());
-            itemAPI.getConsumer().accept(e);
-        });
-        if (!slotRegister.get()) {
+            e.setCancelled(masks.isCancelled(e.getSlot()));
+            if (!masks.isHandled(e.getSlot()))
+                return;
+            final ItemAPI itemAPI = this.resolve(overlay, e.getSlot());
+            if (itemAPI.getConsumer() != null) {
+                final long start = Metrics.start();
+                itemAPI.getConsumer().accept(e);
+                this.getMetrics().handled(start);
+            }
+            if (itemAPI.getAsyncConsumer() != null && e.getWhoClicked() instanceof Player) {
+                final AsyncClick click = new AsyncClick(this, (Player) e.getWhoClicked(), e.getSlot(), e.getClick());
+                this.actions.add(click);
+                ClickExecutor.getInstance().submit(click, itemAPI.getAsyncConsumer());
+            }
+        }
+        else if (overlay != null) {
+            if (e.getInventory().getItem(e.getSlot()) == null || e.getInventory().getItem(e.getSlot()).getType() == Material.AIR)
+                overlay.clearSlot(e.getSlot());
+            else
+                overlay.addItem(e.getSlot(), e.getInventory().getItem(e.getSlot()), false, inventoryClickEvent -> {});
+        }
+        else if (this.store == null && (this.view == null || !this.view.contains(e.getSlot()))) {
             if (e.getInventory().getItem(e.getSlot()) == null || e.getInventory().getItem(e.getSlot()).getType() == Material.AIR)
                 this.clearSlot(e.getSlot());
             else
@@ -559,34 +1408,79 @@ public class InventoryAPI implements Listener {
         }
     }
 
-    @EventHandler
-    public void onMove(final InventoryMoveItemEvent e) {
-        if (!e.getSource().equals(this.inventory) || !e.getInitiator().equals(this.inventory) && !e.getDestination().equals(this.inventory))
+    private boolean allow(final InventoryClickEvent e) {
+        final Inventory clicked = e.getClickedInventory();
+        final boolean inside = this.owns(clicked);
+        final ItemAPI itemAPI = inside ? this.resolve(this.views.get(clicked), e.getSlot()) : null;
+        if (this.clickRate <= 0 && !this.coalesceClicks && (itemAPI == null || itemAPI.getClickRate() <= 0))
+            return true;
+        final long tick = this.coalesceClicks ? Dispatcher.getInstance(this.plugin).getTick() : 0;
+        return this.limiter.acquire(e.getWhoClicked().getUniqueId(), e.getView().getTopInventory().getSize(), inside ? e.getSlot() : -1, itemAPI, this.clickRate, this.clickBurst, this.coalesceClicks, tick);
+    }
+
+    void onMove(final InventoryMoveItemEvent e) {
+        if (!this.owns(e.getSource()) || !this.owns(e.getInitiator()) && !this.owns(e.getDestination()))
             return;
         e.setCancelled(this.interactionCancel);
     }
 
-    @EventHandler
-    public void onDrag(final InventoryDragEvent e) {
-        if (!e.getInventory().equals(this.inventory))
+    void onDrag(final InventoryDragEvent e) {
+        if (!this.owns(e.getInventory()))
             return;
-        this.items.stream().filter(item -> e.getInventorySlots().contains(item.getSlot()) || e.getRawSlots().contains(item.getSlot()))
-                .forEach(item -> e.setCancelled(e.isCancelled() || item.isCancelled()));
+        if (this.store != null) {
+            if (this.stored == null) {
+                e.setCancelled(true);
+                return;
+            }
+            this.scan();
+        }
+        if (this.view != null) {
+            if (!this.view.allow(e)) {
+                e.setCancelled(true);
+                return;
+            }
+            this.view.scan();
+        }
+        if (this.masks(this.views.get(e.getInventory())).isAnyCancelled(e.getRawSlots(), e.getInventory().getSize()))
+            e.setCancelled(true);
+    }
+
+    /**
+     * Get the protection masks of the inventory, or of an overlay over the inventory, compiled again if the items changed.
+     * @param overlay The overlay, or null
+     * @return The {@link SlotMasks}
+     */
+    private SlotMasks masks(final Overlay overlay) {
+        if (overlay == null)
+            return this.masks.update(this.items, null);
+        return overlay.getMasks().update(this.items, overlay.getTable());
     }
 
     @Override
     public String toString() {
         return "InventoryAPI{" +
                 "inventory=" + this.inventory +
+                ", id=" + this.id +
                 ", size=" + this.size +
                 ", title='" + this.title + '\'' +
                 ", type=" + this.type +
-                ", items=" + this.items +
+                ", items=" + this.items.view() +
                 ", function=" + this.function +
                 ", closeEvent=" + this.closeEvent +
                 ", clickEvent=" + this.clickEvent +
                 ", interactionCancel=" + this.interactionCancel +
+                ", clickRate=" + this.clickRate +
+                ", clickBurst=" + this.clickBurst +
+                ", coalesceClicks=" + this.coalesceClicks +
                 ", refreshed=" + this.refreshed +
+                ", shared=" + this.shared +
+                ", layered=" + this.layered +
+                ", pooled=" + this.pooled +
+                ", store=" + this.store +
+                ", storageKey=" + this.storageKey +
+                ", view=" + this.view +
+                ", viewers=" + this.viewers +
+                ", refreshInterval=" + this.refreshInterval +
                 ", build=" + this.build +
                 ", plugin=" + this.plugin +
                 '}';
@@ -0,0 +1,243 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.Server;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pool of Bukkit inventories, used by the pooled inventories (see {@link InventoryAPI#setPooled(boolean)}).
+ * <p>
+ * The inventories are recycled by type, size and title when an inventory is stopped, and dropped when they stay idle too long.
+ * An inventory is never reused while a player still views it.
+ */
+public class InventoryPool {
+
+    private static InventoryPool instance;
+
+    public static synchronized InventoryPool getInstance() {
+        if (instance == null)
+            instance = new InventoryPool(64, TimeUnit.MINUTES.toNanos(1));
+        return instance;
+    }
+
+    private final Map<Key, Deque<Entry>> free;
+    private int count;
+    private int capacity;
+    private long idleTimeout;
+    private long hits;
+    private long misses;
+
+    private InventoryPool(final int capacity, final long idleTimeout) {
+        this.free = new HashMap<>();
+        this.count = 0;
+        this.capacity = capacity;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Get a free inventory of this type, size and title, or create it.
+     * @param server The server, to create the inventory
+     * @param type The type of the inventory, or null to use the size
+     * @param size The size of the inventory
+     * @param title The title of the inventory
+     * @return An empty inventory, without viewers
+     */
+    synchronized Inventory acquire(final Server server, final InventoryType type, final int size, final String title) {
+        this.evict(System.nanoTime());
+        final Deque<Entry> entries = this.free.get(new Key(type, size, title));
+        if (entries != null) {
+            for (final Iterator<Entry> iterator = entries.descendingIterator(); iterator.hasNext(); ) {
+                final Inventory inventory = iterator.next().inventory;
+                if (!inventory.getViewers().isEmpty())
+                    continue;
+                iterator.remove();
+                this.count--;
+                this.hits++;
+                inventory.clear();
+                return inventory;
+            }
+        }
+        this.misses++;
+        if (type == null)
+            return server.createInventory(null, size, title);
+        return server.createInventory(null, type, title);
+    }
+
+    /**
+     * Give back an inventory, which mustn't be used anymore by its InventoryAPI.
+     * @param inventory The inventory
+     * @param type The type of the inventory, or null if it was created with a size
+     * @param title The title of the inventory
+     */
+    synchronized void release(final Inventory inventory, final InventoryType type, final String title) {
+        final long now = System.nanoTime();
+        this.evict(now);
+        this.free.computeIfAbsent(new Key(type, inventory.getSize(), title), key -> new ArrayDeque<>()).addLast(new Entry(inventory, now));
+        this.count++;
+        while (this.count > this.capacity)
+            this.evictOldest();
+    }
+
+    private void evict(final long now) {
+        for (final Iterator<Deque<Entry>> iterator = this.free.values().iterator(); iterator.hasNext(); ) {
+            final Deque<Entry> entries = iterator.next();
+            while (!entries.isEmpty() && now - entries.peekFirst().released >= this.idleTimeout) {
+                entries.pollFirst();
+                this.count--;
+            }
+            if (entries.isEmpty())
+                iterator.remove();
+        }
+    }
+
+    private void evictOldest() {
+        Deque<Entry> oldest = null;
+        for (final Deque<Entry> entries : this.free.values()) {
+            if (oldest == null || entries.peekFirst().released - oldest.peekFirst().released < 0)
+                oldest = entries;
+        }
+        if (oldest == null)
+            return;
+        oldest.pollFirst();
+        this.count--;
+        if (oldest.isEmpty())
+            this.free.values().remove(oldest);
+    }
+
+    /**
+     * Change the maximum amount of free inventories. The oldest ones are dropped first.
+     * @param capacity The capacity, at least 0
+     * @return The InventoryPool
+     */
+    public synchronized InventoryPool setCapacity(final int capacity) {
+        this.capacity = Math.max(0, capacity);
+        while (this.count > this.capacity)
+            this.evictOldest();
+        return this;
+    }
+
+    /**
+     * Get the maximum amount of free inventories.
+     * @return The capacity, an integer
+     */
+    public synchronized int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Change the time after which a free inventory is dropped.
+     * @param idleTimeout The time, at least 0
+     * @param unit The unit of the time
+     * @return The InventoryPool
+     */
+    public synchronized InventoryPool setIdleTimeout(final long idleTimeout, final TimeUnit unit) {
+        this.idleTimeout = unit.toNanos(Math.max(0, idleTimeout));
+        this.evict(System.nanoTime());
+        return this;
+    }
+
+    /**
+     * Get the time after which a free inventory is dropped.
+     * @param unit The unit of the time
+     * @return The time, a long
+     */
+    public synchronized long getIdleTimeout(final TimeUnit unit) {
+        return unit.convert(this.idleTimeout, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the amount of free inventories.
+     * @return The amount of inventories, an integer
+     */
+    public synchronized int size() {
+        return this.count;
+    }
+
+    /**
+     * Drop every free inventory. The counters are kept.
+     */
+    public synchronized void clear() {
+        this.free.clear();
+        this.count = 0;
+    }
+
+    /**
+     * Get the amount of inventories which were reused.
+     * @return The amount of hits, a long
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Get the amount of inventories which had to be created.
+     * @return The amount of misses, a long
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    @Override
+    public String toString() {
+        return "InventoryPool{" +
+                "size=" + this.size() +
+                ", capacity=" + this.getCapacity() +
+                ", idleTimeout=" + this.getIdleTimeout(TimeUnit.MILLISECONDS) + "ms" +
+                ", hits=" + this.getHits() +
+                ", misses=" + this.getMisses() +
+                '}';
+    }
+
+    /**
+     * A free inventory, with the time it was released.
+     */
+    private static final class Entry {
+
+        private final Inventory inventory;
+        private final long released;
+
+        private Entry(final Inventory inventory, final long released) {
+            this.inventory = inventory;
+            this.released = released;
+        }
+    }
+
+    /**
+     * The type, size and title shared by interchangeable inventories.
+     */
+    private static final class Key {
+
+        private final InventoryType type;
+        private final int size;
+        private final String title;
+
+        private Key(final InventoryType type, final int size, final String title) {
+            this.type = type;
+            this.size = type == null ? size : -1;
+            this.title = title;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            final Key other = (Key) o;
+            return this.type == other.type && this.size == other.size && Objects.equals(this.title, other.title);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Objects.hashCode(this.type) + this.size) + Objects.hashCode(this.title);
+        }
+    }
+}
@@ -4,6 +4,11 @@ import org.bukkit.Material;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -12,11 +17,29 @@ import java.util.function.Function;
  */
 public class ItemAPI {
 
+    /**
+     * The revision of the items held by several tables, which can't tell their table that they changed.
+     */
+    static final AtomicLong revisions = new AtomicLong();
+
     private final int slot;
     private Function<Object, ItemStack> function;
+    private Function<Object, Object> cacheKey;
+    private ItemLoader loader;
+    private Animation animation;
+    private int phase;
     private ItemStack item;
     private boolean cancelled;
     private Consumer<InventoryClickEvent> consumer;
+    private Consumer<AsyncClick> asyncConsumer;
+    private int refreshInterval = -1;
+    private double clickRate = 0;
+    private int clickBurst = 1;
+    private boolean shared;
+    private ItemTable table;
+    private boolean tables;
+    private final Set<String> topics = ConcurrentHashMap.newKeySet();
+    final Set<Scheduler.ItemTask> tasks = ConcurrentHashMap.newKeySet();
 
     /**
      * @param slot      The slot where will be located the item.
@@ -47,6 +70,39 @@ public class ItemAPI {
         this.consumer = consumer;
     }
 
+    /**
+     * @param slot The slot where will be located the item.
+     * @param loader A loader that return a future of the ItemStack, started when the inventory is built
+     * @param placeholder The ItemStack shown until the future completes, or null to use the placeholder of the inventory
+     * @param cancelled The boolean to enable/disable the interaction protection for this slot
+     * @param consumer A lambda expression that correspond to the executed code when item is clicked
+     */
+    public ItemAPI(final int slot, final ItemLoader loader, final ItemStack placeholder, final boolean cancelled, final Consumer<InventoryClickEvent> consumer) {
+        this.slot = slot;
+        this.item = placeholder;
+        this.function = null;
+        this.loader = loader;
+        this.cancelled = cancelled;
+        this.consumer = consumer;
+    }
+
+    /**
+     * @param slot The slot where will be located the item.
+     * @param animation The frames shown by the item, advanced by the refresh task
+     * @param phase The amount of frames the item is ahead of the animation
+     * @param cancelled The boolean to enable/disable the interaction protection for this slot
+     * @param consumer A lambda expression that correspond to the executed code when item is clicked
+     */
+    public ItemAPI(final int slot, final Animation animation, final int phase, final boolean cancelled, final Consumer<InventoryClickEvent> consumer) {
+        this.slot = slot;
+        this.function = null;
+        this.animation = animation;
+        this.phase = phase;
+        this.refresh(this);
+        this.cancelled = cancelled;
+        this.consumer = consumer;
+    }
+
     /**
      * @param slot The slot where will be located the item.
      * @param item The wished ItemStack
@@ -58,7 +114,6 @@ public class ItemAPI {
         this.slot = slot;
         this.item = item;
         this.function = function;
-        this.refresh(this);
         this.cancelled = cancelled;
         this.consumer = consumer;
     }
@@ -68,9 +123,62 @@ public class ItemAPI {
      * @param o An {@link InventoryAPI} instance.
      */
     public void refresh(final Object o) {
+        if (this.animation != null) {
+            this.item = this.animation.frame(Scheduler.getClock(), this.phase);
+            return;
+        }
         if (this.function == null)
             return;
-        this.item = this.function.apply(o);
+        this.item = this.compute(o);
+    }
+
+    /**
+     * Compute the ItemStack of this item, without storing it. Can be called outside of the main thread.
+     * @param o An {@link InventoryAPI} instance.
+     * @return The computed ItemStack, or null if there's no function.
+     */
+    ItemStack compute(final Object o) {
+        final Function<Object, ItemStack> function = this.function;
+        if (function == null)
+            return null;
+        final Function<Object, Object> cacheKey = this.cacheKey;
+        if (cacheKey == null)
+            return function.apply(o);
+        return RenderCache.getInstance().get(function, cacheKey.apply(o), () -> function.apply(o));
+    }
+
+    /**
+     * Mark this item as dirty, so its function will be computed again at the next tick, in every refreshed inventory which
+     * contains it. Can be called from any thread.
+     */
+    public void invalidate() {
+        this.tasks.forEach(Scheduler.getInstance()::invalidate);
+    }
+
+    /**
+     * Subscribe this item to a topic, so it will be invalidated by {@link Scheduler#invalidate(String)}.
+     * @param topic The name of the topic
+     */
+    public void subscribe(final String topic) {
+        if (this.topics.add(topic))
+            this.tasks.forEach(task -> Scheduler.getInstance().subscribe(topic, task));
+    }
+
+    /**
+     * Unsubscribe this item from a topic.
+     * @param topic The name of the topic
+     */
+    public void unsubscribe(final String topic) {
+        if (this.topics.remove(topic))
+            this.tasks.forEach(task -> Scheduler.getInstance().unsubscribe(topic, task));
+    }
+
+    /**
+     * Get the topics this item is subscribed to.
+     * @return A read-only set of topic names
+     */
+    public Set<String> getTopics() {
+        return Collections.unmodifiableSet(this.topics);
     }
 
     /**
@@ -93,6 +201,68 @@ public class ItemAPI {
         return this.item;
     }
 
+    /**
+     * Start to load the ItemStack of this item, if it has a loader.
+     * @param o An {@link InventoryAPI} or {@link Overlay} instance.
+     * @return The future of the ItemStack, or null if there's no loader.
+     */
+    CompletableFuture<ItemStack> load(final Object o) {
+        if (this.loader == null)
+            return null;
+        return this.loader.load(o);
+    }
+
+    /**
+     * Get the loader of the ItemAPI.
+     * @return The loader, or null if the item isn't loaded asynchronously.
+     */
+    public ItemLoader getLoader() {
+        return this.loader;
+    }
+
+    /**
+     * Get the animation of the ItemAPI.
+     * @return The {@link Animation}, or null if the item isn't animated.
+     */
+    public Animation getAnimation() {
+        return this.animation;
+    }
+
+    /**
+     * Get the amount of frames the item is ahead of its animation.
+     * @return The phase, an integer
+     */
+    public int getPhase() {
+        return this.phase;
+    }
+
+    /**
+     * Change the animation of the ItemAPI. The animation is used instead of the function.
+     * @param animation The {@link Animation}, or null to stop animating the item
+     * @param phase The amount of frames the item is ahead of the animation
+     */
+    public void setAnimation(final Animation animation, final int phase) {
+        this.animation = animation;
+        this.phase = phase;
+        this.refresh(this);
+    }
+
+    /**
+     * Get the function that create the ItemStack of the ItemAPI.
+     * @return The function, or null if the item is static.
+     */
+    public Function<Object, ItemStack> getFunction() {
+        return this.function;
+    }
+
+    /**
+     * Get the interval of the refresh task for this item.
+     * @return The interval in ticks, -1 if the interval of the inventory is used.
+     */
+    public int getRefreshInterval() {
+        return this.refreshInterval;
+    }
+
     /**
      * Check if interaction protection is enabled
      * @return A boolean, true if enabled, else false
@@ -117,6 +287,23 @@ public class ItemAPI {
         this.function = function;
     }
 
+    /**
+     * Define a cache key for the function, so the built ItemStacks are shared through the {@link RenderCache}. The function is only
+     * executed when its key isn't cached, so the key must include every input of the function, like a version of the state.
+     * @param cacheKey A cheap function that return the key, or null to disable the cache.
+     */
+    public void setCacheKey(final Function<Object, Object> cacheKey) {
+        this.cacheKey = cacheKey;
+    }
+
+    /**
+     * Get the function that return the cache key of the ItemAPI.
+     * @return The function, or null if the cache isn't used.
+     */
+    public Function<Object, Object> getCacheKey() {
+        return this.cacheKey;
+    }
+
     /**
      * Change the item of the ItemAPI.
      * @param item the new item.
@@ -131,6 +318,7 @@ public class ItemAPI {
      */
     public void setCancelled(final boolean cancelled) {
         this.cancelled = cancelled;
+        this.changed();
     }
 
     /**
@@ -139,10 +327,125 @@ public class ItemAPI {
      */
     public void setConsumer(final Consumer<InventoryClickEvent> consumer) {
         this.consumer = consumer;
+        this.changed();
+    }
+
+    /**
+     * Get the asynchronous action of the ItemAPI.
+     * @return The action, or null.
+     */
+    public Consumer<AsyncClick> getAsyncConsumer() {
+        return this.asyncConsumer;
+    }
+
+    /**
+     * Change the asynchronous action of the ItemAPI, executed on a worker thread after the consumer, in the order of the clicks
+     * of each player. The interaction protection is still decided when the item is clicked.
+     * @param asyncConsumer the action to execute, see {@link AsyncClick}.
+     */
+    public void setAsyncConsumer(final Consumer<AsyncClick> asyncConsumer) {
+        this.asyncConsumer = asyncConsumer;
+        this.changed();
+    }
+
+    /**
+     * Get the clicks per second allowed on this item for each viewer.
+     * @return The clicks per second, 0 if there's no limit.
+     */
+    public double getClickRate() {
+        return this.clickRate;
+    }
+
+    /**
+     * Get the clicks allowed at once on this item for each viewer.
+     * @return The burst, an integer
+     */
+    public int getClickBurst() {
+        return this.clickBurst;
+    }
+
+    /**
+     * Limit the clicks of each viewer on this item, in addition to the limit of the inventory
+     * (see {@link InventoryAPI#setClickLimit(double, int)}).
+     * @param clicksPerSecond The clicks per second allowed for each viewer, 0 to disable the limit
+     * @param burst The clicks allowed at once, at least 1
+     */
+    public void setClickLimit(final double clicksPerSecond, final int burst) {
+        this.clickRate = Math.max(0, clicksPerSecond);
+        this.clickBurst = Math.max(1, burst);
+    }
+
+    /**
+     * Change the interval of the refresh task for this item.
+     * @param refreshInterval The interval in ticks, 0 to refresh only when invalidated, -1 to use the interval of the inventory.
+     */
+    public void setRefreshInterval(final int refreshInterval) {
+        this.refreshInterval = Math.max(refreshInterval, -1);
     }
 
     public ItemAPI clone() {
-        return new ItemAPI(this.slot, this.item.clone(), this.function, this.cancelled, this.consumer);
+        return this.copy(this.item == null ? null : this.item.clone());
+    }
+
+    /**
+     * Mark this item as owned by a {@link Template}: it's shared by the inventories, which copy it before giving it to be modified.
+     */
+    void share() {
+        this.shared = true;
+    }
+
+    boolean isShared() {
+        return this.shared;
+    }
+
+    /**
+     * Record a table holding this item, to tell it when the protection of the item changes. An item held by several tables
+     * bumps the global revision instead.
+     * @param table The table
+     */
+    void attach(final ItemTable table) {
+        if (this.shared || this.table == table)
+            return;
+        if (this.table == null && !this.tables) {
+            this.table = table;
+            return;
+        }
+        this.table = null;
+        this.tables = true;
+    }
+
+    void detach(final ItemTable table) {
+        if (this.table == table)
+            this.table = null;
+    }
+
+    private void changed() {
+        if (this.table != null)
+            this.table.touch();
+        else if (this.tables)
+            revisions.incrementAndGet();
+    }
+
+    /**
+     * Copy this item, sharing its current ItemStack. The function isn't executed.
+     * @return A new ItemAPI
+     */
+    ItemAPI copy() {
+        return this.copy(this.item);
+    }
+
+    private ItemAPI copy(final ItemStack item) {
+        final ItemAPI itemAPI = new ItemAPI(this.slot, item, this.function, this.cancelled, this.consumer);
+        itemAPI.cacheKey = this.cacheKey;
+        itemAPI.loader = this.loader;
+        itemAPI.animation = this.animation;
+        itemAPI.phase = this.phase;
+        itemAPI.asyncConsumer = this.asyncConsumer;
+        itemAPI.refreshInterval = this.refreshInterval;
+        itemAPI.clickRate = this.clickRate;
+        itemAPI.clickBurst = this.clickBurst;
+        itemAPI.topics.addAll(this.topics);
+        return itemAPI;
     }
 
     @Override
@@ -150,9 +453,18 @@ public class ItemAPI {
         return "ItemAPI{" +
                 "slot=" + this.slot +
                 ", function=" + this.function +
+                ", cacheKey=" + this.cacheKey +
+                ", loader=" + this.loader +
+                ", animation=" + this.animation +
+                ", phase=" + this.phase +
                 ", item=" + this.item +
                 ", cancelled=" + this.cancelled +
                 ", consumer=" + this.consumer +
+                ", asyncConsumer=" + this.asyncConsumer +
+                ", refreshInterval=" + this.refreshInterval +
+                ", clickRate=" + this.clickRate +
+                ", clickBurst=" + this.clickBurst +
+                ", topics=" + this.topics +
                 '}';
     }
 }
@@ -0,0 +1,21 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An asynchronous supplier of ItemStack, for the items which are too slow to build on the main thread.
+ * <p>
+ * The slot shows a placeholder until the future completes, then the ItemStack is patched in on the main thread.
+ */
+@FunctionalInterface
+public interface ItemLoader {
+
+    /**
+     * Start to load the ItemStack.
+     * @param o The {@link InventoryAPI}, or the {@link Overlay} for a personal item
+     * @return A future of the ItemStack
+     */
+    CompletableFuture<ItemStack> load(final Object o);
+}
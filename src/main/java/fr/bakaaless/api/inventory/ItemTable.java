@@ -0,0 +1,207 @@
+package fr.bakaaless.api.inventory;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A slot-indexed table of {@link ItemAPI}, with an occupancy bitmap to iterate only over the used slots.
+ * <p>
+ * A table can share its arrays with another one, with {@link #share()}. The arrays are then copied at the first modification.
+ * <p>
+ * The occupied slots are also kept in a dense index, rebuilt after the items are added or removed, so the list view is accessed
+ * by position in constant time.
+ */
+final class ItemTable {
+
+    private ItemAPI[] items;
+    private BitSet occupied;
+    private boolean shared;
+    private int modifications;
+    private int[] index;
+    private boolean indexed;
+    private final View view;
+
+    ItemTable(final int capacity) {
+        this.items = new ItemAPI[Math.max(capacity, 0)];
+        this.occupied = new BitSet(Math.max(capacity, 0));
+        this.shared = false;
+        this.index = new int[0];
+        this.view = new View();
+    }
+
+    private ItemTable(final ItemTable source) {
+        this.items = source.items;
+        this.occupied = source.occupied;
+        this.shared = true;
+        this.index = new int[0];
+        this.view = new View();
+    }
+
+    /**
+     * Create a table which shares the arrays of this one, until it's modified. This table mustn't be modified anymore.
+     * @return A new table, with the same items
+     */
+    ItemTable share() {
+        return new ItemTable(this);
+    }
+
+    private void unshare(final int capacity) {
+        this.items = Arrays.copyOf(this.items, capacity);
+        this.occupied = (BitSet) this.occupied.clone();
+        this.shared = false;
+    }
+
+    /**
+     * Grow the table so that it can hold the given amount of slots.
+     * @param capacity The wished capacity, an integer
+     */
+    void ensureCapacity(final int capacity) {
+        if (capacity > this.items.length)
+            this.unshare(Math.max(capacity, this.items.length * 2));
+    }
+
+    ItemAPI get(final int slot) {
+        if (slot < 0 || slot >= this.items.length)
+            return null;
+        return this.items[slot];
+    }
+
+    boolean contains(final int slot) {
+        return slot >= 0 && this.occupied.get(slot);
+    }
+
+    /**
+     * Put an item at its slot.
+     * @param itemAPI The item to put
+     * @return The item previously at this slot, or null
+     */
+    ItemAPI put(final ItemAPI itemAPI) {
+        final int slot = itemAPI.getSlot();
+        this.ensureCapacity(slot + 1);
+        if (this.shared)
+            this.unshare(this.items.length);
+        final ItemAPI previous = this.items[slot];
+        if (previous != null && previous != itemAPI)
+            previous.detach(this);
+        this.items[slot] = itemAPI;
+        itemAPI.attach(this);
+        if (previous == null)
+            this.indexed = false;
+        this.occupied.set(slot);
+        this.modifications++;
+        return previous;
+    }
+
+    /**
+     * Remove the item at a slot.
+     * @param slot The id of the slot, an integer
+     * @return The removed item, or null
+     */
+    ItemAPI remove(final int slot) {
+        if (slot < 0 || slot >= this.items.length || this.items[slot] == null)
+            return null;
+        if (this.shared)
+            this.unshare(this.items.length);
+        final ItemAPI previous = this.items[slot];
+        previous.detach(this);
+        this.items[slot] = null;
+        this.indexed = false;
+        this.occupied.clear(slot);
+        this.modifications++;
+        return previous;
+    }
+
+    /**
+     * Count a modification of an item of the table, which changes what is computed from it.
+     */
+    void touch() {
+        this.modifications++;
+    }
+
+    /**
+     * Get the amount of modifications of the table, to know if something computed from its items is outdated.
+     * @return The amount of modifications, an integer
+     */
+    int getModifications() {
+        return this.modifications;
+    }
+
+    int size() {
+        return this.occupied.cardinality();
+    }
+
+    /**
+     * Get the slot at a position of the occupied slots, from the dense index.
+     * @param position The position, from 0 to {@link #size()} excluded
+     * @return The slot, an integer
+     */
+    private int slotAt(final int position) {
+        if (!this.indexed) {
+            final int size = this.size();
+            if (this.index.length < size)
+                this.index = new int[Math.max(size, this.index.length * 2)];
+            int i = 0;
+            for (int slot = this.occupied.nextSetBit(0); slot >= 0; slot = this.occupied.nextSetBit(slot + 1))
+                this.index[i++] = slot;
+            this.indexed = true;
+        }
+        return this.index[position];
+    }
+
+    /**
+     * Get the amount of slots which can be held without growing the table.
+     * @return The capacity, an integer
+     */
+    int capacity() {
+        return this.items.length;
+    }
+
+    /**
+     * Get a read-only view of the items, ordered by slot.
+     * @return A list backed by this table
+     */
+    List<ItemAPI> view() {
+        return this.view;
+    }
+
+    private final class View extends AbstractList<ItemAPI> {
+
+        @Override
+        public ItemAPI get(final int index) {
+            if (index < 0 || index >= ItemTable.this.size())
+                throw new IndexOutOfBoundsException("Index: " + index);
+            return items[slotAt(index)];
+        }
+
+        @Override
+        public int size() {
+            return ItemTable.this.size();
+        }
+
+        @Override
+        public Iterator<ItemAPI> iterator() {
+            return new Iterator<ItemAPI>() {
+
+                private int cursor = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return occupied.nextSetBit(this.cursor) >= 0;
+                }
+
+                @Override
+                public ItemAPI next() {
+                    final int slot = occupied.nextSetBit(this.cursor);
+                    if (slot < 0)
+                        throw new NoSuchElementException();
+                    this.cursor = slot + 1;
+                    return items[slot];
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * A menu loaded by a {@link MenuLoader}, from its compiled binary record. The record is only decoded into a {@link Template} when
+ * the menu is opened for the first time.
+ */
+public class MenuDefinition {
+
+    private final MenuLoader loader;
+    private final String name;
+    private final ByteBuffer record;
+    private String title;
+    private InventoryType type;
+    private int size;
+    private boolean interactionCancelled;
+    private Template template;
+
+    MenuDefinition(final MenuLoader loader, final String name, final ByteBuffer record) {
+        this.loader = loader;
+        this.name = name;
+        this.record = record;
+    }
+
+    /**
+     * Create a new inventory from this menu. The id of the inventory is the name of the menu.
+     * @return New InventoryAPI object
+     */
+    public InventoryAPI create() {
+        final Template template = this.getTemplate();
+        final InventoryAPI inventoryAPI = InventoryAPI.create(this.loader.getPlugin())
+                .setId(this.name)
+                .setTitle(this.title)
+                .setInteractionCancelled(this.interactionCancelled);
+        if (this.type != null)
+            inventoryAPI.setType(this.type);
+        else
+            inventoryAPI.setSize(this.size);
+        return inventoryAPI.applyTemplate(template);
+    }
+
+    /**
+     * Get the items of this menu, decoding them the first time.
+     * @return The Template
+     */
+    public Template getTemplate() {
+        if (this.template == null)
+            this.decode();
+        return this.template;
+    }
+
+    /**
+     * Check if the record of this menu has already been decoded.
+     * @return true if decoded, else false
+     */
+    public boolean isDecoded() {
+        return this.template != null;
+    }
+
+    /**
+     * Get the name of this menu, the name of its file without extension.
+     * @return The name, a String
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    private void decode() {
+        final ByteBuffer buffer = this.record.duplicate();
+        this.title = ChatColor.translateAlternateColorCodes('&', readString(buffer));
+        final String type = readString(buffer);
+        this.type = type.isEmpty() ? null : InventoryType.valueOf(type);
+        this.size = buffer.get();
+        this.interactionCancelled = buffer.get() != 0;
+        final int count = buffer.getShort();
+        final List<ItemAPI> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final long mask = buffer.getLong();
+            final ItemStack itemStack = this.readItem(buffer);
+            final boolean cancelled = buffer.get() != 0;
+            final Consumer<InventoryClickEvent> consumer = this.readAction(buffer);
+            for (long bits = mask; bits != 0; bits &= bits - 1)
+                items.add(new ItemAPI(Long.numberOfTrailingZeros(bits), itemStack, cancelled, consumer));
+        }
+        this.template = new Template(items);
+    }
+
+    private ItemStack readItem(final ByteBuffer buffer) {
+        final String material = readString(buffer);
+        final int amount = buffer.get();
+        final String name = buffer.get() != 0 ? readString(buffer) : null;
+        final int lines = buffer.getShort();
+        final List<String> lore = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++)
+            lore.add(ChatColor.translateAlternateColorCodes('&', readString(buffer)));
+        Material type = Material.matchMaterial(material);
+        if (type == null) {
+            this.loader.getPlugin().getLogger().log(Level.WARNING, "Unknown material \"" + material + "\" in the menu '" + this.name + "' of InventoryAPI");
+            type = Material.BARRIER;
+        }
+        final ItemStack itemStack = new ItemStack(type, amount);
+        if (name == null && lore.isEmpty())
+            return itemStack;
+        final ItemMeta meta = itemStack.getItemMeta();
+        if (meta == null)
+            return itemStack;
+        if (name != null)
+            meta.setDisplayName(ChatColor.translateAlternateColorCodes('&', name));
+        if (!lore.isEmpty())
+            meta.setLore(lore);
+        itemStack.setItemMeta(meta);
+        return itemStack;
+    }
+
+    private Consumer<InventoryClickEvent> readAction(final ByteBuffer buffer) {
+        final String action = readString(buffer);
+        if (action.isEmpty())
+            return null;
+        final Consumer<InventoryClickEvent> consumer = this.loader.getAction(action);
+        if (consumer == null)
+            this.loader.getPlugin().getLogger().log(Level.WARNING, "Unknown action \"" + action + "\" in the menu '" + this.name + "' of InventoryAPI");
+        return consumer;
+    }
+
+    static String readString(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "MenuDefinition{" +
+                "name='" + this.name + '\'' +
+                ", record=" + this.record.remaining() +
+                ", title='" + this.title + '\'' +
+                ", type=" + this.type +
+                ", size=" + this.size +
+                ", interactionCancelled=" + this.interactionCancelled +
+                ", template=" + this.template +
+                '}';
+    }
+}
@@ -0,0 +1,358 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Load menus declared in YAML files, one file per menu, through a compiled binary cache.
+ * <p>
+ * Each file is compiled once into a compact record of the cache file. At the next loads, the cache file is read at once and
+ * the records of the unchanged files, recognized by the hash of their content, are used without reading the YAML. The records
+ * are only decoded when their menu is opened for the first time (see {@link MenuDefinition}).
+ * <p>
+ * A menu file looks like this, the characters of the layout being the keys of the items:
+ * <pre>
+ * title: "&amp;6Shop"
+ * layout:
+ *   - "#########"
+ *   - "#  a b  #"
+ *   - "#########"
+ * items:
+ *   '#':
+ *     material: BLACK_STAINED_GLASS_PANE
+ *     name: " "
+ *   a:
+ *     material: DIAMOND
+ *     name: "&amp;bDiamond"
+ *     lore: ["&amp;7Price: 10"]
+ *     action: shop.buy
+ *   b:
+ *     material: BARRIER
+ *     slots: [15]
+ *     action: shop.close
+ * </pre>
+ * The actions aren't built in: {@code shop.buy} and {@code shop.close} have to be registered by your plugin with
+ * {@link #registerAction(String, Consumer)}.
+ * The inventory can also have a {@code size} or a {@code type}, and {@code cancelled: true} to cancel every interaction. The
+ * items can have an {@code amount}, and {@code cancelled: false} to be taken.
+ */
+public class MenuLoader {
+
+    private static final int MAGIC = 0x49415049;
+    private static final int VERSION = 1;
+
+    private final JavaPlugin plugin;
+    private final File directory;
+    private final File cache;
+    private final Map<String, Consumer<InventoryClickEvent>> actions;
+    private final Map<String, MenuDefinition> menus;
+    private int compiled;
+
+    /**
+     * Create a loader for the files of the "menus" folder of your plugin, cached in the "menus.bin" file.
+     * @param plugin An instance of the main class of your plugin.
+     */
+    public MenuLoader(final JavaPlugin plugin) {
+        this(plugin, new File(plugin.getDataFolder(), "menus"), new File(plugin.getDataFolder(), "menus.bin"));
+    }
+
+    /**
+     * @param plugin An instance of the main class of your plugin.
+     * @param directory The folder of the YAML files
+     * @param cache The compiled binary cache file
+     */
+    public MenuLoader(final JavaPlugin plugin, final File directory, final File cache) {
+        this.plugin = plugin;
+        this.directory = directory;
+        this.cache = cache;
+        this.actions = new HashMap<>();
+        this.menus = new TreeMap<>();
+    }
+
+    /**
+     * Register an action, which can be referenced by name in the menus. The actions have to be registered before the menus
+     * are opened.
+     * @param name The name of the action
+     * @param action A lambda expression that correspond to the executed code when the item is clicked
+     * @return Your MenuLoader object
+     */
+    public MenuLoader registerAction(final String name, final Consumer<InventoryClickEvent> action) {
+        this.actions.put(name, action);
+        return this;
+    }
+
+    Consumer<InventoryClickEvent> getAction(final String name) {
+        return this.actions.get(name);
+    }
+
+    /**
+     * Load the menus of the folder. Only the files changed since the last load are compiled, then the cache file is written
+     * again if anything changed.
+     * @return Your MenuLoader object
+     */
+    public MenuLoader load() {
+        this.menus.clear();
+        this.compiled = 0;
+        final Map<String, Record> cached = this.readCache();
+        final File[] files = this.directory.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (files == null) {
+            this.plugin.getLogger().log(Level.WARNING, "Can't find the menus folder \"" + this.directory + "\" of InventoryAPI");
+            return this;
+        }
+        final Map<String, Record> records = new TreeMap<>();
+        for (final File file : files) {
+            final String name = file.getName().substring(0, file.getName().length() - 4);
+            try {
+                final byte[] content = Files.readAllBytes(file.toPath());
+                final long hash = hash(content);
+                final Record record = cached.get(name);
+                if (record != null && record.hash == hash) {
+                    records.put(name, record);
+                    continue;
+                }
+                records.put(name, new Record(hash, ByteBuffer.wrap(this.compile(new String(content, StandardCharsets.UTF_8)))));
+                this.compiled++;
+            } catch (final IOException | InvalidConfigurationException | RuntimeException exception) {
+                this.plugin.getLogger().log(Level.WARNING, "Can't compile the menu '" + name + "' of InventoryAPI", exception);
+            }
+        }
+        if (this.compiled > 0 || !records.keySet().equals(cached.keySet()))
+            this.writeCache(records);
+        records.forEach((name, record) -> this.menus.put(name, new MenuDefinition(this, name, record.buffer)));
+        return this;
+    }
+
+    private Map<String, Record> readCache() {
+        final Map<String, Record> records = new HashMap<>();
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(this.cache.toPath()));
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                return records;
+            final int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                final String name = MenuDefinition.readString(buffer);
+                final long hash = buffer.getLong();
+                final int offset = buffer.getInt();
+                final int length = buffer.getInt();
+                final ByteBuffer record = buffer.duplicate();
+                record.limit(offset + length).position(offset);
+                records.put(name, new Record(hash, record.slice()));
+            }
+        } catch (final NoSuchFileException ignored) {
+        } catch (final IOException | RuntimeException exception) {
+            this.plugin.getLogger().log(Level.WARNING, "Can't read the menus cache of InventoryAPI, every menu will be compiled", exception);
+            records.clear();
+        }
+        return records;
+    }
+
+    private void writeCache(final Map<String, Record> records) {
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream output = new DataOutputStream(bytes);
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(records.size());
+            int offset = 12;
+            for (final String name : records.keySet())
+                offset += 2 + name.getBytes(StandardCharsets.UTF_8).length + 16;
+            for (final Map.Entry<String, Record> entry : records.entrySet()) {
+                writeString(output, entry.getKey());
+                output.writeLong(entry.getValue().hash);
+                output.writeInt(offset);
+                output.writeInt(entry.getValue().buffer.remaining());
+                offset += entry.getValue().buffer.remaining();
+            }
+            for (final Record record : records.values()) {
+                final byte[] content = new byte[record.buffer.remaining()];
+                record.buffer.duplicate().get(content);
+                output.write(content);
+            }
+            final Path path = this.cache.toPath();
+            final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            if (path.getParent() != null)
+                Files.createDirectories(path.getParent());
+            Files.write(temporary, bytes.toByteArray());
+            try {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException exception) {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (final IOException exception) {
+            this.plugin.getLogger().log(Level.WARNING, "Can't write the menus cache of InventoryAPI", exception);
+        }
+    }
+
+    private byte[] compile(final String content) throws IOException, InvalidConfigurationException {
+        final YamlConfiguration yaml = new YamlConfiguration();
+        yaml.loadFromString(content);
+        final List<String> layout = yaml.getStringList("layout");
+        final String type = yaml.getString("type", "").toUpperCase(Locale.ROOT);
+        if (!type.isEmpty())
+            InventoryType.valueOf(type);
+        final int size = yaml.getInt("size", layout.isEmpty() ? 27 : layout.size() * 9);
+        if (size < 9 || size > 54 || size % 9 != 0)
+            throw new IllegalArgumentException("The size must be a multiple of 9, between 9 and 54");
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        writeString(output, yaml.getString("title", ""));
+        writeString(output, type);
+        output.writeByte(size);
+        output.writeBoolean(yaml.getBoolean("cancelled", false));
+        final ConfigurationSection items = yaml.getConfigurationSection("items");
+        final Set<String> keys = items == null ? Collections.emptySet() : items.getKeys(false);
+        output.writeShort(keys.size());
+        for (final String key : keys) {
+            final ConfigurationSection item = items.getConfigurationSection(key);
+            if (item == null)
+                throw new IllegalArgumentException("The item '" + key + "' isn't a section");
+            output.writeLong(mask(layout, key, item.getIntegerList("slots"), size));
+            writeString(output, item.getString("material", "STONE"));
+            output.writeByte(Math.max(1, Math.min(64, item.getInt("amount", 1))));
+            final String name = item.getString("name");
+            output.writeBoolean(name != null);
+            if (name != null)
+                writeString(output, name);
+            final List<String> lore = item.getStringList("lore");
+            output.writeShort(lore.size());
+            for (final String line : lore)
+                writeString(output, line);
+            output.writeBoolean(item.getBoolean("cancelled", true));
+            writeString(output, item.getString("action", ""));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static long mask(final List<String> layout, final String key, final List<Integer> slots, final int size) {
+        long mask = 0L;
+        if (key.length() == 1)
+            for (int row = 0; row < layout.size(); row++)
+                for (int column = 0; column < Math.min(9, layout.get(row).length()); column++)
+                    if (layout.get(row).charAt(column) == key.charAt(0) && row * 9 + column < size)
+                        mask |= 1L << row * 9 + column;
+        for (final int slot : slots) {
+            if (slot < 0 || slot >= size)
+                throw new IllegalArgumentException("The slot " + slot + " of the item '" + key + "' is outside of the inventory");
+            mask |= 1L << slot;
+        }
+        return mask;
+    }
+
+    private static void writeString(final DataOutputStream output, final String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF)
+            throw new IllegalArgumentException("The text \"" + string.substring(0, 32) + "...\" is too long");
+        output.writeShort(bytes.length);
+        output.write(bytes);
+    }
+
+    private static long hash(final byte[] content) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return ByteBuffer.wrap(Arrays.copyOf(digest, 8)).getLong();
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Get a loaded menu.
+     * @param name The name of the menu, the name of its file without extension
+     * @return The {@link MenuDefinition}, or null if there's no menu with this name
+     */
+    public MenuDefinition get(final String name) {
+        return this.menus.get(name);
+    }
+
+    /**
+     * Create a new inventory from a loaded menu.
+     * @param name The name of the menu, the name of its file without extension
+     * @return New InventoryAPI object, or null if there's no menu with this name
+     */
+    public InventoryAPI create(final String name) {
+        final MenuDefinition menu = this.menus.get(name);
+        if (menu == null) {
+            this.plugin.getLogger().log(Level.WARNING, "Can't find the menu '" + name + "' of InventoryAPI");
+            return null;
+        }
+        return menu.create();
+    }
+
+    /**
+     * Get the names of the loaded menus.
+     * @return A read-only set of names
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(this.menus.keySet());
+    }
+
+    /**
+     * Get the amount of menus compiled by the last load, because their file changed.
+     * @return The amount of menus, an integer
+     */
+    public int getCompiled() {
+        return this.compiled;
+    }
+
+    /**
+     * Get the {@link JavaPlugin} which is used to create the inventories.
+     * @return the {@link JavaPlugin}
+     */
+    public JavaPlugin getPlugin() {
+        return this.plugin;
+    }
+
+    @Override
+    public String toString() {
+        return "MenuLoader{" +
+                "plugin=" + this.plugin +
+                ", directory=" + this.directory +
+                ", cache=" + this.cache +
+                ", actions=" + this.actions.keySet() +
+                ", menus=" + this.menus.keySet() +
+                ", compiled=" + this.compiled +
+                '}';
+    }
+
+    /**
+     * The compiled record of a menu, with the hash of its file.
+     */
+    private static final class Record {
+
+        private final long hash;
+        private final ByteBuffer buffer;
+
+        private Record(final long hash, final ByteBuffer buffer) {
+            this.hash = hash;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package fr.bakaaless.api.inventory;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of the menus of a plugin which share an id (see {@link InventoryAPI#setId(String)}), or of all of the menus of
+ * a plugin (see {@link Metrics#getTotal()}). The durations are in nanoseconds.
+ */
+public class MenuMetrics {
+
+    private final String id;
+    private final MenuMetrics parent;
+    private final LongAdder openMenus;
+    private final Meter refreshes;
+    private final Histogram refreshTime;
+    private final Histogram buildTime;
+    private final Histogram clickTime;
+    private final Histogram handlerTime;
+    private final LongAdder slowHandlers;
+    private final Meter pushedSlots;
+
+    MenuMetrics(final String id, final MenuMetrics parent) {
+        this.id = id;
+        this.parent = parent;
+        this.openMenus = new LongAdder();
+        this.refreshes = new Meter();
+        this.refreshTime = new Histogram();
+        this.buildTime = new Histogram();
+        this.clickTime = new Histogram();
+        this.handlerTime = new Histogram();
+        this.slowHandlers = new LongAdder();
+        this.pushedSlots = new Meter();
+    }
+
+    void opened(final int delta) {
+        for (MenuMetrics metrics = this; metrics != null; metrics = metrics.parent)
+            metrics.openMenus.add(delta);
+    }
+
+    void refreshed(final long start) {
+        if (start == Metrics.DISABLED)
+            return;
+        final long time = System.nanoTime() - start;
+        for (MenuMetrics metrics = this; metrics != null; metrics = metrics.parent) {
+            metrics.refreshes.mark(1);
+            metrics.refreshTime.record(time);
+        }
+    }
+
+    void built(final long start) {
+        if (start == Metrics.DISABLED)
+            return;
+        final long time = System.nanoTime() - start;
+        for (MenuMetrics metrics = this; metrics != null; metrics = metrics.parent)
+            metrics.buildTime.record(time);
+    }
+
+    void clicked(final long start) {
+        if (start == Metrics.DISABLED)
+            return;
+        final long time = System.nanoTime() - start;
+        for (MenuMetrics metrics = this; metrics != null; metrics = metrics.parent)
+            metrics.clickTime.record(time);
+    }
+
+    void handled(final long start) {
+        if (start == Metrics.DISABLED)
+            return;
+        final long time = System.nanoTime() - start;
+        final boolean slow = time >= Metrics.getSlowHandlerThreshold();
+        for (MenuMetrics metrics = this; metrics != null; metrics = metrics.parent) {
+            metrics.handlerTime.record(time);
+            if (slow)
+                metrics.slowHandlers.increment();
+        }
+    }
+
+    void pushed(final int slots) {
+        if (slots == 0 || !Metrics.isEnabled())
+            return;
+        for (MenuMetrics metrics = this; metrics != null; metrics = metrics.parent)
+            metrics.pushedSlots.mark(slots);
+    }
+
+    /**
+     * Get the id of the menus.
+     * @return The id, or null for all of the menus of the plugin
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Get the amount of built menus, which aren't stopped yet.
+     * @return The amount of menus, a long
+     */
+    public long getOpenMenus() {
+        return this.openMenus.sum();
+    }
+
+    /**
+     * Get the refreshes of the items. Use {@link Meter#getRate()} for the refreshes per second.
+     * @return The meter of the refreshes
+     */
+    public Meter getRefreshes() {
+        return this.refreshes;
+    }
+
+    /**
+     * Get the time spent to refresh an item, on the main thread or on the worker pool.
+     * @return The histogram of the refresh times
+     */
+    public Histogram getRefreshTime() {
+        return this.refreshTime;
+    }
+
+    /**
+     * Get the time spent to build a menu for a player.
+     * @return The histogram of the build times
+     */
+    public Histogram getBuildTime() {
+        return this.buildTime;
+    }
+
+    /**
+     * Get the time spent to handle a click, including the click function and the action of the item.
+     * @return The histogram of the click times
+     */
+    public Histogram getClickTime() {
+        return this.clickTime;
+    }
+
+    /**
+     * Get the time spent in the actions of the clicked items.
+     * @return The histogram of the action times
+     */
+    public Histogram getHandlerTime() {
+        return this.handlerTime;
+    }
+
+    /**
+     * Get the amount of item actions slower than {@link Metrics#getSlowHandlerThreshold()}.
+     * @return The amount of slow actions, a long
+     */
+    public long getSlowHandlers() {
+        return this.slowHandlers.sum();
+    }
+
+    /**
+     * Get the slots pushed to the Bukkit inventories. Divide {@link Meter#getRate()} by 20 for the slots pushed per tick.
+     * @return The meter of the pushed slots
+     */
+    public Meter getPushedSlots() {
+        return this.pushedSlots;
+    }
+
+    @Override
+    public String toString() {
+        return "MenuMetrics{" +
+                "id=" + this.id +
+                ", openMenus=" + this.getOpenMenus() +
+                ", refreshes=" + this.refreshes +
+                ", refreshTime=" + this.refreshTime +
+                ", buildTime=" + this.buildTime +
+                ", clickTime=" + this.clickTime +
+                ", handlerTime=" + this.handlerTime +
+                ", slowHandlers=" + this.getSlowHandlers() +
+                ", pushedSlots=" + this.pushedSlots +
+                '}';
+    }
+}
@@ -0,0 +1,229 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * The built inventories of a plugin, with weak references to their viewers.
+ * <p>
+ * A sweeper checks a few inventories at each tick, so every inventory is checked within a bounded amount of ticks. The viewers
+ * who left or who have another inventory open are forgotten, and an inventory without any viewer for a second is stopped, even
+ * if its close event never came (disconnection, kick, inventory replaced by another plugin...).
+ */
+public class MenuRegistry {
+
+    private static final int SWEEP_BATCH = 32;
+    private static final int GRACE_TICKS = 20;
+
+    private static final Map<JavaPlugin, MenuRegistry> instances = new HashMap<>();
+
+    /**
+     * Get the registry of a plugin, created if needed. Mustn't be used once the plugin is disabled, since its registry would be
+     * created again.
+     * @param plugin The plugin which owns the inventories
+     * @return The registry of this plugin
+     */
+    public static MenuRegistry getInstance(final JavaPlugin plugin) {
+        return instances.computeIfAbsent(plugin, MenuRegistry::new);
+    }
+
+    static MenuRegistry peek(final JavaPlugin plugin) {
+        return instances.get(plugin);
+    }
+
+    /**
+     * Close every inventory of a plugin and forget its registry, when it's disabled.
+     * @param plugin The plugin which owns the inventories
+     */
+    static void remove(final JavaPlugin plugin) {
+        final MenuRegistry registry = peek(plugin);
+        if (registry == null)
+            return;
+        registry.closeAll();
+        instances.remove(plugin);
+    }
+
+    private final JavaPlugin plugin;
+    private final Map<InventoryAPI, Entry> menus;
+    private final Queue<Entry> cursor;
+    private BukkitTask task;
+    private long ticks;
+    private long leaked;
+    private long swept;
+
+    private MenuRegistry(final JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.menus = new IdentityHashMap<>();
+        this.cursor = new ArrayDeque<>();
+    }
+
+    /**
+     * Record a viewer of a built inventory, registering the inventory the first time.
+     * @param inventoryAPI The built inventory
+     * @param player The player who opened it
+     */
+    void track(final InventoryAPI inventoryAPI, final Player player) {
+        Entry entry = this.menus.get(inventoryAPI);
+        if (entry == null) {
+            entry = new Entry(inventoryAPI);
+            this.menus.put(inventoryAPI, entry);
+            this.cursor.add(entry);
+            if (this.task == null)
+                this.task = this.plugin.getServer().getScheduler().runTaskTimer(this.plugin, this::sweep, 1L, 1L);
+        }
+        entry.viewers.put(player.getUniqueId(), new WeakReference<>(player));
+        entry.unviewed = -1;
+    }
+
+    /**
+     * Forget a stopped inventory.
+     * @param inventoryAPI The inventory
+     */
+    void untrack(final InventoryAPI inventoryAPI) {
+        this.menus.remove(inventoryAPI);
+    }
+
+    private void sweep() {
+        this.ticks++;
+        final int batch = Math.min(SWEEP_BATCH, this.cursor.size());
+        for (int i = 0; i < batch; i++) {
+            final Entry entry = this.cursor.poll();
+            if (entry == null)
+                break;
+            final InventoryAPI inventoryAPI = entry.inventoryAPI;
+            if (this.menus.get(inventoryAPI) != entry)
+                continue;
+            this.swept++;
+            try {
+                if (inventoryAPI.getInventory() != null) {
+                    if (this.check(inventoryAPI, entry)) {
+                        this.cursor.add(entry);
+                        continue;
+                    }
+                    this.leaked++;
+                    inventoryAPI.stop();
+                }
+            } catch (final Throwable throwable) {
+                this.plugin.getLogger().log(Level.WARNING, "Can't sweep an InventoryAPI", throwable);
+            }
+            this.menus.remove(inventoryAPI);
+        }
+        if (this.menus.isEmpty()) {
+            this.cursor.clear();
+            this.task.cancel();
+            this.task = null;
+        }
+    }
+
+    /**
+     * Forget the viewers who don't view the inventory anymore.
+     * @param inventoryAPI The inventory
+     * @param entry The viewers of the inventory
+     * @return false if the inventory has to be stopped, else true
+     */
+    private boolean check(final InventoryAPI inventoryAPI, final Entry entry) {
+        for (final Iterator<Map.Entry<UUID, WeakReference<Player>>> iterator = entry.viewers.entrySet().iterator(); iterator.hasNext(); ) {
+            final Map.Entry<UUID, WeakReference<Player>> viewer = iterator.next();
+            final Player player = viewer.getValue().get();
+            if (player != null && player.isOnline() && inventoryAPI.owns(player.getOpenInventory().getTopInventory()))
+                continue;
+            iterator.remove();
+            inventoryAPI.forget(viewer.getKey());
+        }
+        if (!entry.viewers.isEmpty()) {
+            entry.unviewed = -1;
+            return true;
+        }
+        if (entry.unviewed < 0)
+            entry.unviewed = this.ticks;
+        return this.ticks - entry.unviewed < GRACE_TICKS;
+    }
+
+    /**
+     * Close every inventory of the plugin, for its viewers too. Already done when the plugin is disabled.
+     * @return The amount of closed inventories, an integer
+     */
+    public int closeAll() {
+        final ArrayList<InventoryAPI> inventories = new ArrayList<>(this.menus.keySet());
+        for (final InventoryAPI inventoryAPI : inventories) {
+            final Entry entry = this.menus.get(inventoryAPI);
+            if (entry != null)
+                for (final WeakReference<Player> reference : new ArrayList<>(entry.viewers.values())) {
+                    final Player player = reference.get();
+                    if (player != null && player.isOnline() && inventoryAPI.owns(player.getOpenInventory().getTopInventory()))
+                        player.closeInventory();
+                }
+            inventoryAPI.stop();
+        }
+        this.menus.clear();
+        this.cursor.clear();
+        if (this.task != null) {
+            this.task.cancel();
+            this.task = null;
+        }
+        return inventories.size();
+    }
+
+    /**
+     * Get the amount of built inventories of the plugin.
+     * @return The amount of inventories, an integer
+     */
+    public int size() {
+        return this.menus.size();
+    }
+
+    /**
+     * Get the amount of inventories stopped by the sweeper because nobody viewed them anymore. Should stay flat when every close
+     * event reaches the inventories.
+     * @return The amount of leaked inventories, a long
+     */
+    public long getLeaked() {
+        return this.leaked;
+    }
+
+    /**
+     * Get the amount of checks done by the sweeper.
+     * @return The amount of checks, a long
+     */
+    public long getSwept() {
+        return this.swept;
+    }
+
+    @Override
+    public String toString() {
+        return "MenuRegistry{" +
+                "plugin=" + this.plugin +
+                ", menus=" + this.menus.size() +
+                ", leaked=" + this.leaked +
+                ", swept=" + this.swept +
+                '}';
+    }
+
+    /**
+     * The viewers of a built inventory.
+     */
+    private static final class Entry {
+
+        private final InventoryAPI inventoryAPI;
+        private final Map<UUID, WeakReference<Player>> viewers;
+        private long unviewed;
+
+        private Entry(final InventoryAPI inventoryAPI) {
+            this.inventoryAPI = inventoryAPI;
+            this.viewers = new HashMap<>();
+            this.unviewed = -1;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * The persistence of the storage inventories (see {@link InventoryAPI#setStorage(MenuStore, String)}).
+ * <p>
+ * Both methods are called on the storage thread of the {@link StorageFlusher}, one call at a time.
+ */
+public interface MenuStore {
+
+    /**
+     * Read the stored items of an inventory.
+     * @param key The key of the inventory
+     * @return The items by slot, empty if nothing is stored
+     * @throws IOException If the items can't be read
+     */
+    Map<Integer, ItemStack> load(final String key) throws IOException;
+
+    /**
+     * Write the slots changed since the last write, for several inventories at once.
+     * @param changes The changed items by slot, by key of inventory. A null item is a cleared slot
+     * @throws IOException If the items can't be written, they will be given again to the next write
+     */
+    void write(final Map<String, Map<Integer, ItemStack>> changes) throws IOException;
+}
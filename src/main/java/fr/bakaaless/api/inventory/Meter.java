@@ -0,0 +1,65 @@
+package fr.bakaaless.api.inventory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free counter of events, with their rate per second over the last 10 seconds, used by {@link MenuMetrics}.
+ */
+public class Meter {
+
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(10);
+
+    private final LongAdder count;
+    private long windowStart;
+    private long windowCount;
+    private double rate;
+
+    Meter() {
+        this.count = new LongAdder();
+        this.windowStart = System.nanoTime();
+    }
+
+    /**
+     * Count some events. Can be called from any thread.
+     * @param events The amount of events
+     */
+    void mark(final long events) {
+        this.count.add(events);
+    }
+
+    /**
+     * Get the amount of counted events.
+     * @return The amount of events, a long
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Get the amount of events per second. The rate is updated when it's read at least 10 seconds after its last update, and
+     * is computed over the events counted since then.
+     * @return The rate, in events per second
+     */
+    public synchronized double getRate() {
+        final long now = System.nanoTime();
+        final long count = this.count.sum();
+        final long elapsed = now - this.windowStart;
+        if (elapsed >= WINDOW) {
+            this.rate = (count - this.windowCount) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+            this.windowStart = now;
+            this.windowCount = count;
+        }
+        else if (this.rate == 0d && elapsed > 0)
+            return (count - this.windowCount) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+        return this.rate;
+    }
+
+    @Override
+    public String toString() {
+        return "Meter{" +
+                "count=" + this.getCount() +
+                ", rate=" + this.getRate() +
+                '}';
+    }
+}
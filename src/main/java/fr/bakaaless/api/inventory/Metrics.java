@@ -0,0 +1,154 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The metrics of the menus of a plugin, by menu id (see {@link InventoryAPI#setId(String)}), plus the metrics of the shared
+ * refresh task (see {@link #getTickTime()}).
+ * <p>
+ * The metrics are recorded with lock-free counters, and can be disabled with {@link #setEnabled(boolean)}: nothing is then
+ * timed nor recorded, apart from the amount of open menus.
+ */
+public class Metrics {
+
+    static final long DISABLED = Long.MIN_VALUE;
+
+    private static final Map<JavaPlugin, Metrics> instances = new ConcurrentHashMap<>();
+    private static final Histogram tickTime = new Histogram();
+    private static final Histogram tickSlots = new Histogram();
+    private static volatile boolean enabled = true;
+    private static volatile long slowHandlerThreshold = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /**
+     * Get the metrics of a plugin.
+     * @param plugin The plugin which owns the menus
+     * @return The metrics of this plugin
+     */
+    public static Metrics getInstance(final JavaPlugin plugin) {
+        return instances.computeIfAbsent(plugin, Metrics::new);
+    }
+
+    /**
+     * Forget the metrics of a plugin, when it's disabled.
+     * @param plugin The plugin which owns the menus
+     */
+    static void remove(final JavaPlugin plugin) {
+        instances.remove(plugin);
+    }
+
+    /**
+     * Enable or disable the recording of the metrics, for every plugin. Enabled by default.
+     * @param enabled A boolean to enable/disable the metrics
+     */
+    public static void setEnabled(final boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Get the boolean of the recording of the metrics.
+     * @return A boolean, true if enabled, else false.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Change the duration from which an item action is counted as slow (5 milliseconds by default).
+     * @param threshold The duration
+     * @param unit The unit of the duration
+     */
+    public static void setSlowHandlerThreshold(final long threshold, final TimeUnit unit) {
+        slowHandlerThreshold = unit.toNanos(Math.max(0, threshold));
+    }
+
+    /**
+     * Get the duration from which an item action is counted as slow.
+     * @return The duration, in nanoseconds
+     */
+    public static long getSlowHandlerThreshold() {
+        return slowHandlerThreshold;
+    }
+
+    /**
+     * Get the time spent in each tick of the refresh task, for every plugin.
+     * @return The histogram of the tick times, in nanoseconds
+     */
+    public static Histogram getTickTime() {
+        return tickTime;
+    }
+
+    /**
+     * Get the amount of slots pushed in each tick of the refresh task, for every plugin.
+     * @return The histogram of the pushed slots
+     */
+    public static Histogram getTickSlots() {
+        return tickSlots;
+    }
+
+    /**
+     * Start to time an operation.
+     * @return The start time, or {@link #DISABLED} if the metrics are disabled
+     */
+    static long start() {
+        return enabled ? System.nanoTime() : DISABLED;
+    }
+
+    static void ticked(final long start, final int slots) {
+        if (start == DISABLED)
+            return;
+        tickTime.record(System.nanoTime() - start);
+        tickSlots.record(slots);
+    }
+
+    private final JavaPlugin plugin;
+    private final MenuMetrics total;
+    private final Map<String, MenuMetrics> menus;
+
+    private Metrics(final JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.total = new MenuMetrics(null, null);
+        this.menus = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get the metrics of all of the menus of the plugin.
+     * @return The metrics of the plugin
+     */
+    public MenuMetrics getTotal() {
+        return this.total;
+    }
+
+    /**
+     * Get the metrics of the menus with an id.
+     * @param id The id of the menus, or null for all of the menus
+     * @return The metrics of these menus
+     */
+    public MenuMetrics getMenu(final String id) {
+        if (id == null)
+            return this.total;
+        return this.menus.computeIfAbsent(id, key -> new MenuMetrics(key, this.total));
+    }
+
+    /**
+     * Get the metrics of every menu id of the plugin.
+     * @return A read-only collection of metrics
+     */
+    public Collection<MenuMetrics> getMenus() {
+        return Collections.unmodifiableCollection(this.menus.values());
+    }
+
+    @Override
+    public String toString() {
+        return "Metrics{" +
+                "plugin=" + this.plugin +
+                ", total=" + this.total +
+                ", menus=" + this.menus.values() +
+                '}';
+    }
+}
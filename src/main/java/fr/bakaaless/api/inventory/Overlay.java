@@ -0,0 +1,159 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The personal layer of a viewer in a layered {@link InventoryAPI}, which only holds the slots that differ from the shared base.
+ * <p>
+ * The functions of the items of an overlay receive the overlay itself, so they can use {@link #getViewer()}.
+ */
+public class Overlay {
+
+    private final InventoryAPI inventoryAPI;
+    private final UUID viewer;
+    private final ItemTable items;
+    private final SlotMasks masks;
+    private final Set<CompletableFuture<ItemStack>> loading;
+    private Inventory inventory;
+    private ItemStack[] rendered;
+
+    Overlay(final InventoryAPI inventoryAPI, final UUID viewer) {
+        this.inventoryAPI = inventoryAPI;
+        this.viewer = viewer;
+        this.items = new ItemTable(0);
+        this.masks = new SlotMasks();
+        this.loading = new HashSet<>();
+    }
+
+    /**
+     * Get the unique id of the viewer of this overlay.
+     * @return The unique id of the player
+     */
+    public UUID getViewer() {
+        return this.viewer;
+    }
+
+    /**
+     * Get the inventory this overlay belongs to.
+     * @return The {@link InventoryAPI}
+     */
+    public InventoryAPI getInventoryAPI() {
+        return this.inventoryAPI;
+    }
+
+    /**
+     * Get the personal items of the viewer, ordered by slot.
+     * @return A read-only list of {@link ItemAPI}
+     */
+    public List<ItemAPI> getItems() {
+        return this.items.view();
+    }
+
+    /**
+     * Get the personal item that correspond to the given slot.
+     * @param slot The id of the slot, an integer
+     * @return An {@link ItemAPI} object if slot is set in this overlay, else empty.
+     */
+    public Optional<ItemAPI> getItem(final int slot) {
+        return Optional.ofNullable(this.items.get(slot));
+    }
+
+    /**
+     * Set a personal item, see {@link InventoryAPI#addItem(int, ItemStack, boolean, Consumer)}.
+     * @param slot The id of the slot, an integer
+     * @param itemStack The ItemStack to set
+     * @param cancelled The boolean to enable/disable the interaction protection for this slot
+     * @param consumer A lambda expression that correspond to the executed code when item is clicked
+     * @return Your Overlay object
+     */
+    public Overlay addItem(final int slot, final ItemStack itemStack, final boolean cancelled, final Consumer<InventoryClickEvent> consumer) {
+        return this.addItem(new ItemAPI(slot, itemStack, cancelled, consumer));
+    }
+
+    /**
+     * Set a personal item, see {@link InventoryAPI#addItem(int, Function, boolean, Consumer)}.
+     * @param slot The id of the slot, an integer
+     * @param function A function that return an ItemStack, for the refresh task. It receives this overlay.
+     * @param cancelled The boolean to enable/disable the interaction protection for this slot
+     * @param consumer A lambda expression that correspond to the executed code when item is clicked
+     * @return Your Overlay object
+     */
+    public Overlay addItem(final int slot, final Function<Object, ItemStack> function, final boolean cancelled, final Consumer<InventoryClickEvent> consumer) {
+        return this.addItem(new ItemAPI(slot, function, cancelled, consumer));
+    }
+
+    /**
+     * Set a personal item, using {@link ItemAPI}.
+     * @param itemAPI An {@link ItemAPI}
+     * @return Your Overlay object
+     */
+    public Overlay addItem(final ItemAPI itemAPI) {
+        if (itemAPI.getSlot() < 0)
+            return this;
+        this.items.put(itemAPI);
+        if (this.inventory != null && this.inventoryAPI.isRefreshed())
+            Scheduler.getInstance().schedule(this.inventoryAPI, this, itemAPI);
+        return this;
+    }
+
+    /**
+     * Clear a personal slot, so the viewer will see the shared item again.
+     * @param slot The id of the slot, an integer
+     * @return Your Overlay object
+     */
+    public Overlay clearSlot(final int slot) {
+        this.items.remove(slot);
+        return this;
+    }
+
+    ItemTable getTable() {
+        return this.items;
+    }
+
+    SlotMasks getMasks() {
+        return this.masks;
+    }
+
+    /**
+     * Get the loads of the items of this overlay, cancelled when it's closed.
+     * @return The pending futures
+     */
+    Set<CompletableFuture<ItemStack>> getLoading() {
+        return this.loading;
+    }
+
+    Inventory getInventory() {
+        return this.inventory;
+    }
+
+    void setInventory(final Inventory inventory) {
+        this.inventory = inventory;
+        this.rendered = null;
+    }
+
+    ItemStack[] getRendered(final int size) {
+        if (this.rendered == null || this.rendered.length != size)
+            this.rendered = new ItemStack[size];
+        return this.rendered;
+    }
+
+    @Override
+    public String toString() {
+        return "Overlay{" +
+                "viewer=" + this.viewer +
+                ", items=" + this.items.view() +
+                ", inventory=" + this.inventory +
+                '}';
+    }
+}
@@ -0,0 +1,43 @@
+package fr.bakaaless.api.inventory;
+
+import java.util.List;
+
+/**
+ * An indexed source of elements, shown page by page with a {@link Pagination}. Only the elements of the visible page are read.
+ * @param <T> The type of the elements
+ */
+public interface PageSource<T> {
+
+    /**
+     * Get the amount of elements.
+     * @return The amount of elements, an integer
+     */
+    int size();
+
+    /**
+     * Get an element.
+     * @param index The index of the element, between 0 and {@link #size()} excluded
+     * @return The element
+     */
+    T get(final int index);
+
+    /**
+     * Create a source backed by a list.
+     * @param list The list of the elements
+     * @param <T> The type of the elements
+     * @return A source reading the list
+     */
+    static <T> PageSource<T> of(final List<T> list) {
+        return new PageSource<T>() {
+            @Override
+            public int size() {
+                return list.size();
+            }
+
+            @Override
+            public T get(final int index) {
+                return list.get(index);
+            }
+        };
+    }
+}
@@ -0,0 +1,225 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A paginated area of an {@link InventoryAPI}, created with {@link InventoryAPI#paginate(int[], PageSource, Function, BiConsumer)}.
+ * <p>
+ * Only the ItemStacks of the visible page are built, plus the neighbouring pages if the prefetch is enabled, so the memory and
+ * the opening time don't depend on the size of the source. Page flips only push the slots which changed.
+ * @param <T> The type of the elements
+ */
+public class Pagination<T> {
+
+    private static ExecutorService prefetcher;
+
+    /**
+     * Get the thread which builds the prefetched pages of every pagination, apart from the refresh task of the inventories.
+     * @return The executor
+     */
+    private static synchronized ExecutorService getPrefetcher() {
+        if (prefetcher == null)
+            prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "InventoryAPI-Prefetch");
+                thread.setDaemon(true);
+                return thread;
+            });
+        return prefetcher;
+    }
+
+    private final InventoryAPI inventoryAPI;
+    private final int[] slots;
+    private final PageSource<T> source;
+    private final Function<T, ItemStack> renderer;
+    private final BiConsumer<T, InventoryClickEvent> consumer;
+    private final Map<Integer, Page<T>> cache;
+    private boolean prefetch;
+    private boolean cancelled;
+    private volatile int generation;
+    private volatile int page;
+
+    Pagination(final InventoryAPI inventoryAPI, final int[] slots, final PageSource<T> source, final Function<T, ItemStack> renderer, final BiConsumer<T, InventoryClickEvent> consumer) {
+        this.inventoryAPI = inventoryAPI;
+        this.slots = slots.clone();
+        this.source = source;
+        this.renderer = renderer;
+        this.consumer = consumer == null ? (element, inventoryClickEvent) -> {} : consumer;
+        this.cache = new ConcurrentHashMap<>();
+        this.prefetch = false;
+        this.cancelled = true;
+        this.generation = 0;
+        this.page = 0;
+    }
+
+    /**
+     * Get the index of the visible page.
+     * @return The index of the page, starting at 0
+     */
+    public int getPage() {
+        return this.page;
+    }
+
+    /**
+     * Get the amount of pages, depending on the current size of the source.
+     * @return The amount of pages, at least 1
+     */
+    public int getPageCount() {
+        return Math.max(1, (this.source.size() + this.slots.length - 1) / this.slots.length);
+    }
+
+    /**
+     * Show a page. The index is clamped between the first and the last page.
+     * @param page The index of the page, starting at 0
+     * @return Your Pagination object
+     */
+    public Pagination<T> setPage(final int page) {
+        this.page = Math.max(0, Math.min(page, this.getPageCount() - 1));
+        this.show();
+        return this;
+    }
+
+    /**
+     * Show the next page, if any.
+     * @return Your Pagination object
+     */
+    public Pagination<T> next() {
+        return this.setPage(this.page + 1);
+    }
+
+    /**
+     * Show the previous page, if any.
+     * @return Your Pagination object
+     */
+    public Pagination<T> previous() {
+        return this.setPage(this.page - 1);
+    }
+
+    /**
+     * Enable the prefetch of the neighbouring pages, built on a background thread after each page flip. The source and the
+     * renderer are then called outside of the main thread, so they have to be thread-safe.
+     * @param prefetch A boolean to enable/disable the prefetch
+     * @return Your Pagination object
+     */
+    public Pagination<T> setPrefetch(final boolean prefetch) {
+        this.prefetch = prefetch;
+        return this;
+    }
+
+    /**
+     * Change the interaction protection of the elements.
+     * @param cancelled The boolean to enable/disable the interaction protection for the slots of the elements
+     * @return Your Pagination object
+     */
+    public Pagination<T> setCancelled(final boolean cancelled) {
+        this.cancelled = cancelled;
+        return this;
+    }
+
+    /**
+     * Add buttons to flip the pages.
+     * @param previousSlot The slot of the button to show the previous page
+     * @param previous The ItemStack of the button to show the previous page
+     * @param nextSlot The slot of the button to show the next page
+     * @param next The ItemStack of the button to show the next page
+     * @return Your Pagination object
+     */
+    public Pagination<T> setNavigation(final int previousSlot, final ItemStack previous, final int nextSlot, final ItemStack next) {
+        this.inventoryAPI.addItem(previousSlot, previous, true, inventoryClickEvent -> this.previous());
+        this.inventoryAPI.addItem(nextSlot, next, true, inventoryClickEvent -> this.next());
+        return this;
+    }
+
+    /**
+     * Forget the built pages and show the visible page again, after a change of the source.
+     * @return Your Pagination object
+     */
+    public Pagination<T> refresh() {
+        this.generation++;
+        this.cache.clear();
+        return this.setPage(this.page);
+    }
+
+    private void show() {
+        final int page = this.page;
+        Page<T> current = this.cache.get(page);
+        if (current == null) {
+            current = this.build(page);
+            this.cache.put(page, current);
+        }
+        for (int i = 0; i < this.slots.length; i++) {
+            if (i >= current.count) {
+                this.inventoryAPI.clearSlot(this.slots[i]);
+                continue;
+            }
+            final T element = current.elements[i];
+            this.inventoryAPI.addItem(this.slots[i], current.items[i], this.cancelled, inventoryClickEvent -> this.consumer.accept(element, inventoryClickEvent));
+        }
+        this.cache.keySet().removeIf(index -> Math.abs(index - page) > 1);
+        if (this.prefetch) {
+            this.prefetch(page - 1);
+            this.prefetch(page + 1);
+        }
+        this.inventoryAPI.render();
+    }
+
+    private void prefetch(final int page) {
+        if (page < 0 || page >= this.getPageCount() || this.cache.containsKey(page))
+            return;
+        final int generation = this.generation;
+        CompletableFuture.supplyAsync(() -> this.build(page), getPrefetcher()).thenAccept(built -> {
+            if (!this.inventoryAPI.getPlugin().isEnabled())
+                return;
+            this.inventoryAPI.getPlugin().getServer().getScheduler().runTask(this.inventoryAPI.getPlugin(), () -> {
+                if (this.generation == generation && Math.abs(this.page - page) <= 1)
+                    this.cache.putIfAbsent(page, built);
+            });
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Page<T> build(final int page) {
+        final int size = this.source.size();
+        final int count = Math.max(0, Math.min(this.slots.length, size - page * this.slots.length));
+        final Page<T> built = new Page<>((T[]) new Object[count], new ItemStack[count]);
+        for (int i = 0; i < count; i++) {
+            built.elements[i] = this.source.get(page * this.slots.length + i);
+            built.items[i] = this.renderer.apply(built.elements[i]);
+        }
+        return built;
+    }
+
+    /**
+     * The elements of a page, with their built ItemStacks.
+     */
+    private static final class Page<T> {
+
+        private final int count;
+        private final T[] elements;
+        private final ItemStack[] items;
+
+        private Page(final T[] elements, final ItemStack[] items) {
+            this.count = elements.length;
+            this.elements = elements;
+            this.items = items;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Pagination{" +
+                "slots=" + this.slots.length +
+                ", page=" + this.page +
+                ", pages=" + this.getPageCount() +
+                ", prefetch=" + this.prefetch +
+                '}';
+    }
+}
@@ -0,0 +1,178 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded LRU cache of the ItemStacks built by the functions of the items, used by the items which have a cache key
+ * (see {@link ItemAPI#setCacheKey(java.util.function.Function)}).
+ * <p>
+ * Identical keys of the same function share the same ItemStack, in every inventory, so the cached ItemStacks mustn't be modified.
+ */
+public class RenderCache {
+
+    private static RenderCache instance;
+
+    public static synchronized RenderCache getInstance() {
+        if (instance == null)
+            instance = new RenderCache(1024);
+        return instance;
+    }
+
+    private final LinkedHashMap<Key, ItemStack> items;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private int capacity;
+
+    private RenderCache(final int capacity) {
+        this.items = new LinkedHashMap<Key, ItemStack>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, ItemStack> eldest) {
+                if (this.size() <= RenderCache.this.capacity)
+                    return false;
+                evictions.increment();
+                return true;
+            }
+        };
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get the ItemStack cached for a key, or build and cache it. Can be called from any thread.
+     * @param function The function which builds the ItemStack
+     * @param key The cache key computed for this function
+     * @param builder The code which builds the ItemStack
+     * @return The cached or built ItemStack
+     */
+    ItemStack get(final Object function, final Object key, final Supplier<ItemStack> builder) {
+        final Key cacheKey = new Key(function, key);
+        ItemStack itemStack;
+        synchronized (this) {
+            itemStack = this.items.get(cacheKey);
+        }
+        if (itemStack != null) {
+            this.hits.increment();
+            return itemStack;
+        }
+        this.misses.increment();
+        itemStack = builder.get();
+        if (itemStack == null)
+            return null;
+        synchronized (this) {
+            final ItemStack previous = this.items.putIfAbsent(cacheKey, itemStack);
+            return previous == null ? itemStack : previous;
+        }
+    }
+
+    /**
+     * Change the maximum amount of cached ItemStacks. The least recently used ones are evicted first.
+     * @param capacity The capacity, at least 1
+     * @return The RenderCache
+     */
+    public synchronized RenderCache setCapacity(final int capacity) {
+        this.capacity = Math.max(1, capacity);
+        while (this.items.size() > this.capacity) {
+            this.items.remove(this.items.keySet().iterator().next());
+            this.evictions.increment();
+        }
+        return this;
+    }
+
+    /**
+     * Get the maximum amount of cached ItemStacks.
+     * @return The capacity, an integer
+     */
+    public synchronized int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Get the amount of cached ItemStacks.
+     * @return The amount of ItemStacks, an integer
+     */
+    public synchronized int size() {
+        return this.items.size();
+    }
+
+    /**
+     * Remove every cached ItemStack. The counters are kept.
+     */
+    public synchronized void clear() {
+        this.items.clear();
+    }
+
+    /**
+     * Get the amount of lookups which found a cached ItemStack.
+     * @return The amount of hits, a long
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Get the amount of lookups which had to build the ItemStack.
+     * @return The amount of misses, a long
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Get the amount of ItemStacks removed because the cache was full.
+     * @return The amount of evictions, a long
+     */
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RenderCache{" +
+                "size=" + this.size() +
+                ", capacity=" + this.getCapacity() +
+                ", hits=" + this.getHits() +
+                ", misses=" + this.getMisses() +
+                ", evictions=" + this.getEvictions() +
+                '}';
+    }
+
+    /**
+     * A cache key, bound to the function which builds the ItemStack.
+     */
+    private static final class Key {
+
+        private final Object function;
+        private final Object key;
+        private final int hash;
+
+        private Key(final Object function, final Object key) {
+            this.function = function;
+            this.key = key;
+            this.hash = 31 * System.identityHashCode(function) + Objects.hashCode(key);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            final Key other = (Key) o;
+            return this.function == other.function && Objects.equals(this.key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
@@ -1,99 +1,682 @@
 package fr.bakaaless.api.inventory;
 
+import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 
+/**
+ * The refresh task of <b>InventoryAPI</b>.
+ * <p>
+ * The functions of the inventories and of their items are kept in a {@link TimingWheel}, each one with its own refresh interval,
+ * so a tick only touches what is due. Items can also be invalidated, directly or through a topic, to be computed at the next tick
+ * only. Inventory functions are executed on the main thread, while item functions are computed in parallel on a worker pool.
+ * The computed items are applied in one batch, on the main thread, at a later tick.
+ * <p>
+ * The work done on the main thread at each tick is limited by a time budget (see {@link #setBudget(long)}). The renders and the
+ * due tasks which don't fit are deferred to the next tick, before the tasks due then. Inventories which aren't viewed by anyone
+ * are suspended: their tasks leave the wheel, and run again as soon as a player opens the inventory, or at the next check of its
+ * viewers, once per second.
+ * <p>
+ * The refresh task runs under the plugin of the first refreshed inventory. When this plugin is disabled, the task is moved to
+ * the plugin of another inventory, so the inventories of the other plugins keep being refreshed.
+ */
 public class Scheduler {
 
+    private static final int SUSPENDED_INTERVAL = 20;
+
     private static Scheduler instance;
+    private static volatile long clock;
 
-    public static Scheduler getInstance() {
+    public static synchronized Scheduler getInstance() {
         if (instance == null)
             instance = new Scheduler();
         return instance;
     }
 
-    private final List<InventoryAPI> inventories = new ArrayList<>();
-    private Timer timer;
-    private TimerTask task;
-    private boolean isRunning;
+    static synchronized Scheduler peek() {
+        return instance;
+    }
 
-    private int step;
+    private final Map<InventoryAPI, Registration> inventories;
+    private final Queue<Task> incoming;
+    private final Queue<ItemTask> invalidated;
+    private final Map<String, Set<ItemTask>> topics;
+    private final TimingWheel<Task> wheel;
+    private final List<Refresh> pending;
+    private final Queue<Task> ready;
+    private final Set<InventoryAPI> renders;
+    private final ForkJoinPool pool;
+    private BukkitTask task;
+    private JavaPlugin owner;
+    private CompletableFuture<List<Refresh>> batch;
+    private int pushed;
+    private volatile long budget;
+    private final LongAdder deferred;
+    private final LongAdder overruns;
+    private final LongAdder suspended;
 
     private Scheduler() {
-        this.step = 0;
-        this.isRunning = false;
-        this.timer = new Timer();
-        this.task = new TimerTask() {
-            @Override
-            public void run() {
-                if (isRunning)
-                    exec();
-            }
-        };
+        this.inventories = new ConcurrentHashMap<>();
+        this.incoming = new ConcurrentLinkedQueue<>();
+        this.invalidated = new ConcurrentLinkedQueue<>();
+        this.topics = new ConcurrentHashMap<>();
+        this.wheel = new TimingWheel<>();
+        this.pending = new ArrayList<>();
+        this.ready = new ArrayDeque<>();
+        this.renders = Collections.newSetFromMap(new LinkedHashMap<>());
+        this.budget = TimeUnit.MILLISECONDS.toNanos(10);
+        this.deferred = new LongAdder();
+        this.overruns = new LongAdder();
+        this.suspended = new LongAdder();
+        this.pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("InventoryAPI-Refresh-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
     }
 
+    /**
+     * Execute one tick of the refresh task. Have to be called from the main thread.
+     */
     public void exec() {
-        if (step++ % 2 == 0)
-            this.inventories.forEach(inventoryAPI -> {
-                inventoryAPI.getInventory().clear();
-                if (inventoryAPI.getFunction() != null)
-                    inventoryAPI.getFunction().accept(inventoryAPI);
-                inventoryAPI.getItems().forEach(itemAPI -> inventoryAPI.getInventory().setItem(itemAPI.getSlot(), itemAPI.getItem()));
-            });
-        else
-            this.inventories.forEach(inventoryAPI -> inventoryAPI.getItems().forEach(itemAPI -> itemAPI.refresh(inventoryAPI)));
+        final long start = Metrics.start();
+        final long tick = System.nanoTime();
+        this.pushed = 0;
+        if (this.batch != null && this.batch.isDone()) {
+            this.apply(this.batch.join());
+            this.batch = null;
+        }
+        for (Task task = this.incoming.poll(); task != null; task = this.incoming.poll())
+            this.reschedule(task);
+        for (ItemTask task = this.invalidated.poll(); task != null; task = this.invalidated.poll()) {
+            task.dirty.set(false);
+            if (task.registration.active)
+                task.enqueue(this);
+        }
+        clock++;
+        this.wheel.advance(this.ready::add);
+        boolean served = false;
+        for (final Iterator<InventoryAPI> iterator = this.renders.iterator(); iterator.hasNext(); served = true) {
+            if (served && this.isOver(tick))
+                break;
+            final InventoryAPI inventoryAPI = iterator.next();
+            iterator.remove();
+            this.pushed += inventoryAPI.render();
+        }
+        for (Task task = this.ready.peek(); task != null; task = this.ready.peek(), served = true) {
+            if (served && this.isOver(tick))
+                break;
+            this.ready.poll();
+            this.run(task);
+        }
+        if (!this.ready.isEmpty() || !this.renders.isEmpty())
+            this.deferred.add(this.ready.size() + this.renders.size());
+        if (System.nanoTime() - tick > this.budget)
+            this.overruns.increment();
+        if (this.batch == null && !this.pending.isEmpty()) {
+            final List<Refresh> refreshes = new ArrayList<>(this.pending);
+            this.pending.clear();
+            this.batch = CompletableFuture.supplyAsync(() -> {
+                refreshes.parallelStream().forEach(Refresh::compute);
+                return refreshes;
+            }, this.pool);
+        }
+        Metrics.ticked(start, this.pushed);
     }
 
-    private void start() {
-        if (!this.isRunning) {
-            this.isRunning = true;
-            this.step = 0;
-            this.timer.schedule(this.task, 0L, 50L);
+    /**
+     * Wait for the items computed by the worker pool, so the next tick applies them. Used by the benchmarks.
+     */
+    void await() {
+        final CompletableFuture<List<Refresh>> batch = this.batch;
+        if (batch != null)
+            batch.join();
+    }
+
+    private boolean isOver(final long tick) {
+        return this.budget > 0 && System.nanoTime() - tick >= this.budget;
+    }
+
+    private void run(final Task task) {
+        if (!task.registration.active)
+            return;
+        if (task.isSuspendable() && !task.registration.isViewed(this.wheel.getTick())) {
+            this.suspended.increment();
+            task.registration.park(task, this);
+            return;
+        }
+        try {
+            if (!task.run(this))
+                return;
+        } catch (final Throwable throwable) {
+            task.registration.inventory.getPlugin().getLogger().log(Level.WARNING, "Can't refresh an InventoryAPI", throwable);
         }
+        this.reschedule(task);
     }
 
-    private void stop() {
-        if (this.isRunning) {
-            this.timer.cancel();
-            this.timer = null;
-            this.task = null;
-            this.timer = new Timer();
-            this.task = new TimerTask() {
-                @Override
-                public void run() {
-                    if (isRunning)
-                        exec();
+    private void reschedule(final Task task) {
+        if (!task.registration.active) {
+            task.discard();
+            return;
+        }
+        final int interval = task.getInterval();
+        if (interval > 0)
+            this.wheel.schedule(task, interval);
+    }
+
+    private void apply(final List<Refresh> refreshes) {
+        final Set<InventoryAPI> updated = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final Refresh refresh : refreshes) {
+            refresh.task.queued = false;
+            final InventoryAPI inventoryAPI = refresh.task.registration.inventory;
+            final ItemAPI itemAPI = refresh.task.item;
+            if (refresh.error != null) {
+                inventoryAPI.getPlugin().getLogger().log(Level.WARNING, "Can't refresh the item at slot " + itemAPI.getSlot() + " in InventoryAPI", refresh.error);
+                continue;
+            }
+            if (!refresh.task.registration.active || !refresh.task.isValid())
+                continue;
+            itemAPI.setItem(refresh.result);
+            updated.add(inventoryAPI);
+        }
+        this.renders.addAll(updated);
+    }
+
+    private void tick() {
+        if (this.inventories.isEmpty()) {
+            synchronized (this) {
+                if (this.inventories.isEmpty()) {
+                    this.stop();
+                    return;
                 }
-            };
-            this.isRunning = false;
+            }
         }
+        this.exec();
+    }
+
+    private synchronized void start(final JavaPlugin plugin) {
+        if (this.task == null || this.task.isCancelled()) {
+            this.task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+            this.owner = plugin;
+        }
+    }
+
+    private synchronized void stop() {
+        if (this.task != null) {
+            this.task.cancel();
+            this.task = null;
+        }
+        this.owner = null;
+        if (this.batch != null) {
+            this.batch.cancel(false);
+            this.batch = null;
+        }
+        this.wheel.clear();
+        this.pending.clear();
+        this.ready.clear();
+        this.renders.clear();
+    }
+
+    /**
+     * Forget the inventories of a disabled plugin. If the refresh task belonged to this plugin, it's moved to the plugin of
+     * another inventory, or stopped if there's none left.
+     * @param plugin The disabled plugin
+     */
+    synchronized void disable(final JavaPlugin plugin) {
+        for (final InventoryAPI inventoryAPI : new ArrayList<>(this.inventories.keySet()))
+            if (inventoryAPI.getPlugin() == plugin)
+                this.remove(inventoryAPI);
+        if (this.owner != plugin)
+            return;
+        this.task.cancel();
+        this.task = null;
+        this.owner = null;
+        for (final InventoryAPI inventoryAPI : this.inventories.keySet())
+            if (inventoryAPI.getPlugin().isEnabled()) {
+                this.start(inventoryAPI.getPlugin());
+                return;
+            }
+        this.stop();
     }
 
+    /**
+     * Stop the refresh task and the worker pool, and forget every inventory. The next call to {@link #getInstance()} creates a
+     * new scheduler.
+     * @param plugin The plugin which stops the scheduler
+     */
     public void forceStop(final JavaPlugin plugin) {
         plugin.getLogger().log(Level.WARNING, "Try to shutdown InventoryAPI's scheduler");
-        this.stop();
+        synchronized (this) {
+            new ArrayList<>(this.inventories.keySet()).forEach(this::remove);
+            this.incoming.clear();
+            this.invalidated.clear();
+            this.topics.clear();
+            this.stop();
+            this.pool.shutdown();
+        }
+        synchronized (Scheduler.class) {
+            if (instance == this)
+                instance = null;
+        }
     }
 
-    synchronized void add(final InventoryAPI inv) {
-        this.inventories.add(inv);
-        if (this.inventories.size() == 1)
-            this.start();
+    void add(final InventoryAPI inv) {
+        final Registration registration = new Registration(inv);
+        if (this.inventories.putIfAbsent(inv, registration) != null)
+            return;
+        this.incoming.add(new MenuTask(registration));
+        for (final ItemAPI itemAPI : inv.getTable().view())
+            this.schedule(registration, null, itemAPI);
+        for (final Overlay overlay : inv.getOverlays())
+            for (final ItemAPI itemAPI : overlay.getItems())
+                this.schedule(registration, overlay, itemAPI);
+        this.start(inv.getPlugin());
     }
 
-    synchronized void remove(final InventoryAPI inv) {
-        this.inventories.remove(inv);
-        if (this.inventories.size() == 0)
-            this.stop();
+    void remove(final InventoryAPI inv) {
+        final Registration registration = this.inventories.remove(inv);
+        if (registration == null)
+            return;
+        registration.active = false;
+        registration.items.values().forEach(ItemTask::discard);
+    }
+
+    /**
+     * Run at once the tasks of an inventory suspended while nobody viewed it, when a player opens it.
+     * @param inv The inventory
+     */
+    void resume(final InventoryAPI inv) {
+        final Registration registration = this.inventories.get(inv);
+        if (registration == null)
+            return;
+        registration.checked = -1;
+        this.ready.addAll(registration.parked);
+        registration.parked.clear();
+    }
+
+    /**
+     * Schedule the refresh of an item, if its inventory is refreshed.
+     * @param inv The inventory of the item
+     * @param itemAPI The item to refresh
+     */
+    void schedule(final InventoryAPI inv, final ItemAPI itemAPI) {
+        this.schedule(inv, null, itemAPI);
+    }
+
+    /**
+     * Schedule the refresh of an item of an overlay, if its inventory is refreshed.
+     * @param inv The inventory of the overlay
+     * @param overlay The overlay of the item, or null for a shared item
+     * @param itemAPI The item to refresh
+     */
+    void schedule(final InventoryAPI inv, final Overlay overlay, final ItemAPI itemAPI) {
+        final Registration registration = this.inventories.get(inv);
+        if (registration != null)
+            this.schedule(registration, overlay, itemAPI);
+    }
+
+    private void schedule(final Registration registration, final Overlay overlay, final ItemAPI itemAPI) {
+        if (itemAPI.getFunction() == null && itemAPI.getAnimation() == null)
+            return;
+        final ItemTask task = new ItemTask(registration, overlay, itemAPI);
+        if (registration.items.putIfAbsent(itemAPI, task) != null)
+            return;
+        itemAPI.tasks.add(task);
+        for (final String topic : itemAPI.getTopics())
+            this.subscribe(topic, task);
+        this.incoming.add(task);
+    }
+
+    /**
+     * Invalidate every item subscribed to a topic, so they will be refreshed at the next tick. Several invalidations of the same
+     * item before the next tick are coalesced. Can be called from any thread.
+     * @param topic The name of the topic
+     */
+    public void invalidate(final String topic) {
+        final Set<ItemTask> tasks = this.topics.get(topic);
+        if (tasks != null)
+            tasks.forEach(this::invalidate);
+    }
+
+    void invalidate(final ItemTask task) {
+        if (task.dirty.compareAndSet(false, true))
+            this.invalidated.add(task);
+    }
+
+    void subscribe(final String topic, final ItemTask task) {
+        this.topics.computeIfAbsent(topic, key -> ConcurrentHashMap.newKeySet()).add(task);
+    }
+
+    void unsubscribe(final String topic, final ItemTask task) {
+        this.topics.computeIfPresent(topic, (key, tasks) -> {
+            tasks.remove(task);
+            return tasks.isEmpty() ? null : tasks;
+        });
+    }
+
+    /**
+     * Change the time which can be spent on the main thread at each tick. At least one render or task is done per tick.
+     * @param budget The budget in microseconds, 0 for no limit (10 milliseconds by default)
+     * @return The Scheduler
+     */
+    public Scheduler setBudget(final long budget) {
+        this.budget = TimeUnit.MICROSECONDS.toNanos(Math.max(0, budget));
+        return this;
+    }
+
+    /**
+     * Get the time which can be spent on the main thread at each tick.
+     * @return The budget in microseconds, 0 if there's no limit
+     */
+    public long getBudget() {
+        return TimeUnit.NANOSECONDS.toMicros(this.budget);
+    }
+
+    /**
+     * Get the amount of renders and tasks deferred to the next tick, summed over every tick.
+     * @return The amount of deferrals, a long
+     */
+    public long getDeferred() {
+        return this.deferred.sum();
+    }
+
+    /**
+     * Get the amount of ticks which took longer than the budget.
+     * @return The amount of overruns, a long
+     */
+    public long getOverruns() {
+        return this.overruns.sum();
+    }
+
+    /**
+     * Get the amount of tasks skipped because their inventory wasn't viewed.
+     * @return The amount of suspended tasks, a long
+     */
+    public long getSuspended() {
+        return this.suspended.sum();
+    }
+
+    /**
+     * Get the amount of renders and tasks waiting for the next tick.
+     * @return The backlog, an integer
+     */
+    public int getBacklog() {
+        return this.ready.size() + this.renders.size();
+    }
+
+    /**
+     * Get the amount of ticks since the start of the scheduler.
+     * @return The current tick, a long
+     */
+    long getTick() {
+        return this.wheel.getTick();
     }
 
-    synchronized int getStep() {
-        return this.step;
+    /**
+     * Get the amount of ticks executed by the schedulers, which goes on after {@link #forceStop(JavaPlugin)}. Used to show the
+     * frames of the animations, without creating the scheduler: 0 until the first tick.
+     * @return The current tick, a long
+     */
+    static long getClock() {
+        return clock;
+    }
+
+    /**
+     * The scheduling state of a refreshed inventory.
+     */
+    private static final class Registration {
+
+        private final InventoryAPI inventory;
+        private final Map<ItemAPI, ItemTask> items;
+        private final List<Task> parked;
+        private final Wakeup wakeup;
+        private volatile boolean active;
+        private long checked;
+        private boolean viewed;
+
+        private Registration(final InventoryAPI inventory) {
+            this.inventory = inventory;
+            this.items = new ConcurrentHashMap<>();
+            this.parked = new ArrayList<>();
+            this.wakeup = new Wakeup(this);
+            this.active = true;
+            this.checked = -1;
+        }
+
+        /**
+         * Keep a task out of the wheel while nobody views the inventory. The parked tasks are run again when a player opens the
+         * inventory, or by the wakeup, which checks the viewers once per second.
+         * @param task The suspended task
+         * @param scheduler The scheduler
+         */
+        private void park(final Task task, final Scheduler scheduler) {
+            if (!this.wakeup.scheduled) {
+                this.wakeup.scheduled = true;
+                scheduler.wheel.schedule(this.wakeup, SUSPENDED_INTERVAL);
+            }
+            this.parked.add(task);
+        }
+
+        /**
+         * Check if a player views the inventory, once per tick.
+         * @param tick The current tick
+         * @return true if the inventory is viewed, else false
+         */
+        private boolean isViewed(final long tick) {
+            if (this.checked != tick) {
+                this.checked = tick;
+                this.viewed = this.inventory.isViewed();
+            }
+            return this.viewed;
+        }
+    }
+
+    private abstract static class Task extends TimingWheel.Entry {
+
+        final Registration registration;
+
+        Task(final Registration registration) {
+            this.registration = registration;
+        }
+
+        /**
+         * Run the task.
+         * @param scheduler The scheduler running the task
+         * @return true if the task has to be rescheduled, else false
+         */
+        abstract boolean run(final Scheduler scheduler);
+
+        abstract int getInterval();
+
+        boolean isSuspendable() {
+            return true;
+        }
+
+        void discard() {
+        }
+    }
+
+    /**
+     * Check the viewers of an inventory with parked tasks, and run them again once it's viewed.
+     */
+    private static final class Wakeup extends Task {
+
+        private boolean scheduled;
+
+        private Wakeup(final Registration registration) {
+            super(registration);
+        }
+
+        @Override
+        boolean run(final Scheduler scheduler) {
+            if (!this.registration.parked.isEmpty() && !this.registration.isViewed(scheduler.wheel.getTick()))
+                return true;
+            this.scheduled = false;
+            scheduler.resume(this.registration.inventory);
+            return false;
+        }
+
+        @Override
+        int getInterval() {
+            return SUSPENDED_INTERVAL;
+        }
+
+        @Override
+        boolean isSuspendable() {
+            return false;
+        }
+    }
+
+    /**
+     * Execute the function of an inventory, then render it.
+     */
+    private static final class MenuTask extends Task {
+
+        private MenuTask(final Registration registration) {
+            super(registration);
+        }
+
+        @Override
+        boolean run(final Scheduler scheduler) {
+            final InventoryAPI inventoryAPI = this.registration.inventory;
+            if (inventoryAPI.getInventory() == null)
+                return false;
+            if (inventoryAPI.getFunction() != null)
+                inventoryAPI.getFunction().accept(inventoryAPI);
+            scheduler.renders.remove(inventoryAPI);
+            scheduler.pushed += inventoryAPI.render();
+            return true;
+        }
+
+        @Override
+        int getInterval() {
+            return this.registration.inventory.getRefreshInterval();
+        }
+    }
+
+    /**
+     * Queue the function of an item to be computed on the worker pool, periodically or when the item is invalidated.
+     */
+    static final class ItemTask extends Task {
+
+        private final Overlay overlay;
+        private final ItemAPI item;
+        private final AtomicBoolean dirty;
+        private boolean queued;
+
+        private ItemTask(final Registration registration, final Overlay overlay, final ItemAPI item) {
+            super(registration);
+            this.overlay = overlay;
+            this.item = item;
+            this.dirty = new AtomicBoolean(false);
+        }
+
+        /**
+         * Check if the item is still at its slot, in a built inventory or overlay.
+         * @return true if the item can be refreshed, else false
+         */
+        private boolean isValid() {
+            if (this.registration.inventory.getInventory() == null || this.item.getFunction() == null && this.item.getAnimation() == null)
+                return false;
+            if (this.overlay == null)
+                return this.registration.inventory.getItemAPI(this.item.getSlot()) == this.item;
+            return this.overlay.getInventory() != null && this.overlay.getTable().get(this.item.getSlot()) == this.item;
+        }
+
+        /**
+         * Get the object given to the function of the item.
+         * @return The overlay of the item, or its inventory for a shared item
+         */
+        private Object getArgument() {
+            return this.overlay == null ? this.registration.inventory : this.overlay;
+        }
+
+        @Override
+        boolean run(final Scheduler scheduler) {
+            return this.enqueue(scheduler);
+        }
+
+        private boolean enqueue(final Scheduler scheduler) {
+            final InventoryAPI inventoryAPI = this.registration.inventory;
+            if (!this.isValid()) {
+                this.discard();
+                return false;
+            }
+            final Animation animation = this.item.getAnimation();
+            if (animation != null) {
+                final ItemStack frame = animation.frame(clock, this.item.getPhase());
+                if (frame != this.item.getItem()) {
+                    this.item.setItem(frame);
+                    scheduler.renders.add(inventoryAPI);
+                }
+                return true;
+            }
+            if (this.item.getSlot() < inventoryAPI.getInventory().getSize() && !this.queued) {
+                this.queued = true;
+                scheduler.pending.add(new Refresh(this));
+            }
+            return true;
+        }
+
+        @Override
+        int getInterval() {
+            if (this.item.getAnimation() != null)
+                return this.item.getAnimation().delay(clock);
+            final int interval = this.item.getRefreshInterval();
+            return interval < 0 ? this.registration.inventory.getRefreshInterval() : interval;
+        }
+
+        @Override
+        void discard() {
+            this.registration.items.remove(this.item, this);
+            this.item.tasks.remove(this);
+            for (final String topic : this.item.getTopics())
+                Scheduler.getInstance().unsubscribe(topic, this);
+        }
+    }
+
+    /**
+     * An item to compute on the worker pool, with its result.
+     */
+    private static final class Refresh {
+
+        private final ItemTask task;
+        private ItemStack result;
+        private Throwable error;
+
+        private Refresh(final ItemTask task) {
+            this.task = task;
+        }
+
+        private void compute() {
+            try {
+                final long start = Metrics.start();
+                this.result = this.task.item.compute(this.task.getArgument());
+                this.task.registration.inventory.getMetrics().refreshed(start);
+            } catch (final Throwable throwable) {
+                this.error = throwable;
+            }
+        }
     }
 
 }
@@ -0,0 +1,110 @@
+package fr.bakaaless.api.inventory;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * The protection state of the slots of an inventory or an overlay, compiled into bitmasks: registered slots, cancelled slots and
+ * slots with a click action. The masks are compiled again only when the items change.
+ */
+final class SlotMasks {
+
+    private long[] registered;
+    private long[] cancelled;
+    private long[] handled;
+    private ItemTable base;
+    private ItemTable overlay;
+    private int baseModifications;
+    private int overlayModifications;
+    private long revision;
+
+    SlotMasks() {
+        this.registered = new long[1];
+        this.cancelled = new long[1];
+        this.handled = new long[1];
+        this.revision = -1;
+    }
+
+    /**
+     * Compile the masks again if the items changed since the last compilation: the modifications of the tables count the changes
+     * of their items, and the global revision the changes of the items held by several tables.
+     * @param base The items of the inventory
+     * @param overlay The items of the overlay, over the ones of the inventory, or null
+     * @return This SlotMasks
+     */
+    SlotMasks update(final ItemTable base, final ItemTable overlay) {
+        final long revision = ItemAPI.revisions.get();
+        if (this.revision == revision && this.base == base && this.baseModifications == base.getModifications()
+                && this.overlay == overlay && (overlay == null || this.overlayModifications == overlay.getModifications()))
+            return this;
+        final int words = (Math.max(base.capacity(), overlay == null ? 0 : overlay.capacity()) + 63 >>> 6) + 1;
+        if (this.registered.length < words) {
+            this.registered = new long[words];
+            this.cancelled = new long[words];
+            this.handled = new long[words];
+        }
+        else {
+            Arrays.fill(this.registered, 0L);
+            Arrays.fill(this.cancelled, 0L);
+            Arrays.fill(this.handled, 0L);
+        }
+        for (final ItemAPI itemAPI : base.view())
+            if (overlay == null || !overlay.contains(itemAPI.getSlot()))
+                this.set(itemAPI);
+        if (overlay != null)
+            for (final ItemAPI itemAPI : overlay.view())
+                this.set(itemAPI);
+        this.base = base;
+        this.overlay = overlay;
+        this.baseModifications = base.getModifications();
+        this.overlayModifications = overlay == null ? 0 : overlay.getModifications();
+        this.revision = revision;
+        return this;
+    }
+
+    private void set(final ItemAPI itemAPI) {
+        final int word = itemAPI.getSlot() >>> 6;
+        final long bit = 1L << itemAPI.getSlot();
+        this.registered[word] |= bit;
+        if (itemAPI.isCancelled())
+            this.cancelled[word] |= bit;
+        if (itemAPI.getConsumer() != null || itemAPI.getAsyncConsumer() != null)
+            this.handled[word] |= bit;
+    }
+
+    private static boolean test(final long[] mask, final int slot) {
+        return slot >= 0 && slot >>> 6 < mask.length && (mask[slot >>> 6] & 1L << slot) != 0;
+    }
+
+    boolean isRegistered(final int slot) {
+        return test(this.registered, slot);
+    }
+
+    boolean isCancelled(final int slot) {
+        return test(this.cancelled, slot);
+    }
+
+    boolean isHandled(final int slot) {
+        return test(this.handled, slot);
+    }
+
+    /**
+     * Check if a drag touches a cancelled slot of the top inventory.
+     * @param rawSlots The raw slots of the drag
+     * @param size The size of the top inventory, the raw slots above belong to the player inventory
+     * @return true if the drag has to be cancelled, else false
+     */
+    boolean isAnyCancelled(final Set<Integer> rawSlots, final int size) {
+        if (size <= 64) {
+            long dragged = 0L;
+            for (final int slot : rawSlots)
+                if (slot >= 0 && slot < size)
+                    dragged |= 1L << slot;
+            return (dragged & this.cancelled[0]) != 0;
+        }
+        for (final int slot : rawSlots)
+            if (slot < size && this.isCancelled(slot))
+                return true;
+        return false;
+    }
+}
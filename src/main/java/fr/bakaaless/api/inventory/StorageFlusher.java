@@ -0,0 +1,280 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * The write-behind queue of the storage inventories (see {@link InventoryAPI#setStorage(MenuStore, String)}).
+ * <p>
+ * The changed slots are queued by the main thread, coalesced by slot, then written in batches by a single storage thread, after
+ * a short delay, with one call per {@link MenuStore} for every inventory. The queue is bounded, and the main thread never waits:
+ * when the queue is full, the changes adding new slots are refused and counted, the batch is written at once, and the
+ * inventory submits its refused changes again at its next change.
+ */
+public class StorageFlusher {
+
+    private static StorageFlusher instance;
+
+    public static synchronized StorageFlusher getInstance() {
+        if (instance == null)
+            instance = new StorageFlusher();
+        return instance;
+    }
+
+    static synchronized StorageFlusher peek() {
+        return instance;
+    }
+
+    private final ScheduledExecutorService executor;
+    private final Map<MenuStore, Map<String, Map<Integer, ItemStack>>> pending;
+    private final LongAdder written;
+    private final LongAdder flushes;
+    private final LongAdder failures;
+    private final LongAdder dropped;
+    private int size;
+    private boolean scheduled;
+    private boolean urgent;
+    private volatile long delay;
+    private volatile int capacity;
+
+    private StorageFlusher() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "InventoryAPI-Storage");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pending = new HashMap<>();
+        this.written = new LongAdder();
+        this.flushes = new LongAdder();
+        this.failures = new LongAdder();
+        this.dropped = new LongAdder();
+        this.delay = TimeUnit.SECONDS.toMillis(1);
+        this.capacity = 65536;
+    }
+
+    /**
+     * Queue the changed slots of an inventory. A slot already queued is replaced. The changes are refused if they would queue
+     * more slots than the capacity.
+     * @param store The store of the inventory
+     * @param key The key of the inventory
+     * @param changes The changed items by slot, null for a cleared slot
+     * @return true if the changes are queued, false if the queue is full
+     */
+    synchronized boolean submit(final MenuStore store, final String key, final Map<Integer, ItemStack> changes) {
+        final Map<String, Map<Integer, ItemStack>> keys = this.pending.get(store);
+        final Map<Integer, ItemStack> slots = keys == null ? null : keys.get(key);
+        int added = 0;
+        for (final Integer slot : changes.keySet())
+            if (slots == null || !slots.containsKey(slot))
+                added++;
+        if (this.size + added > this.capacity) {
+            this.dropped.add(changes.size());
+            if (!this.urgent) {
+                this.urgent = true;
+                Bukkit.getLogger().log(Level.WARNING, "The storage queue of InventoryAPI is full, " + this.size + " slots are written at once");
+                this.executor.execute(this::write);
+            }
+            return false;
+        }
+        this.merge(store, key, changes, true);
+        if (!this.scheduled) {
+            this.scheduled = true;
+            this.executor.schedule(this::write, this.delay, TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    private void merge(final MenuStore store, final String key, final Map<Integer, ItemStack> changes, final boolean replace) {
+        final Map<Integer, ItemStack> slots = this.pending.computeIfAbsent(store, s -> new HashMap<>()).computeIfAbsent(key, k -> new HashMap<>());
+        for (final Map.Entry<Integer, ItemStack> entry : changes.entrySet()) {
+            final boolean queued = slots.containsKey(entry.getKey());
+            if (queued && !replace)
+                continue;
+            slots.put(entry.getKey(), entry.getValue());
+            if (!queued)
+                this.size++;
+        }
+    }
+
+    /**
+     * Read the items of an inventory on the storage thread, with its queued slots over them.
+     * @param store The store of the inventory
+     * @param key The key of the inventory
+     * @return A future of the items by slot
+     */
+    CompletableFuture<Map<Integer, ItemStack>> load(final MenuStore store, final String key) {
+        return CompletableFuture.supplyAsync(() -> {
+            final Map<Integer, ItemStack> items;
+            try {
+                items = new HashMap<>(store.load(key));
+            } catch (final IOException exception) {
+                throw new CompletionException(exception);
+            }
+            synchronized (this) {
+                final Map<String, Map<Integer, ItemStack>> keys = this.pending.get(store);
+                final Map<Integer, ItemStack> slots = keys == null ? null : keys.get(key);
+                if (slots != null)
+                    slots.forEach((slot, item) -> {
+                        if (item == null)
+                            items.remove(slot);
+                        else
+                            items.put(slot, item);
+                    });
+            }
+            return items;
+        }, this.executor);
+    }
+
+    private void write() {
+        final Map<MenuStore, Map<String, Map<Integer, ItemStack>>> batch;
+        synchronized (this) {
+            this.scheduled = false;
+            this.urgent = false;
+            if (this.pending.isEmpty())
+                return;
+            batch = new HashMap<>(this.pending);
+            this.pending.clear();
+            this.size = 0;
+        }
+        for (final Map.Entry<MenuStore, Map<String, Map<Integer, ItemStack>>> entry : batch.entrySet()) {
+            try {
+                entry.getKey().write(entry.getValue());
+                entry.getValue().values().forEach(slots -> this.written.add(slots.size()));
+            } catch (final IOException | RuntimeException exception) {
+                this.failures.increment();
+                Bukkit.getLogger().log(Level.WARNING, "Can't write the storage inventories of InventoryAPI, they will be written again", exception);
+                synchronized (this) {
+                    entry.getValue().forEach((key, slots) -> this.merge(entry.getKey(), key, slots, false));
+                    if (!this.scheduled) {
+                        this.scheduled = true;
+                        this.executor.schedule(this::write, this.delay, TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+        }
+        this.flushes.increment();
+    }
+
+    /**
+     * Write the queued slots now, and wait for the storage thread. Should be called when your plugin is disabled.
+     * @param timeout The maximum time to wait
+     * @param unit The unit of the timeout
+     * @return true if every queued slot has been written, else false
+     */
+    public boolean flush(final long timeout, final TimeUnit unit) {
+        try {
+            this.executor.submit(this::write).get(timeout, unit);
+        } catch (final TimeoutException | ExecutionException exception) {
+            return false;
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        synchronized (this) {
+            return this.pending.isEmpty();
+        }
+    }
+
+    /**
+     * Change the delay between the first change of a batch and its write.
+     * @param delay The delay in milliseconds (1 second by default)
+     * @return The StorageFlusher
+     */
+    public StorageFlusher setDelay(final long delay) {
+        this.delay = Math.max(0, delay);
+        return this;
+    }
+
+    /**
+     * Get the delay between the first change of a batch and its write.
+     * @return The delay in milliseconds
+     */
+    public long getDelay() {
+        return this.delay;
+    }
+
+    /**
+     * Change the amount of slots which can wait to be written. The changes above are refused until the batch is written.
+     * @param capacity The amount of slots (65536 by default)
+     * @return The StorageFlusher
+     */
+    public StorageFlusher setCapacity(final int capacity) {
+        this.capacity = Math.max(1, capacity);
+        return this;
+    }
+
+    /**
+     * Get the amount of slots which can wait to be written.
+     * @return The amount of slots, an integer
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Get the amount of slots waiting to be written.
+     * @return The amount of slots, an integer
+     */
+    public synchronized int getPending() {
+        return this.size;
+    }
+
+    /**
+     * Get the amount of slots written since the start.
+     * @return The amount of slots, a long
+     */
+    public long getWritten() {
+        return this.written.sum();
+    }
+
+    /**
+     * Get the amount of batches written since the start.
+     * @return The amount of batches, a long
+     */
+    public long getFlushes() {
+        return this.flushes.sum();
+    }
+
+    /**
+     * Get the amount of failed writes, which have been retried.
+     * @return The amount of failures, a long
+     */
+    public long getFailures() {
+        return this.failures.sum();
+    }
+
+    /**
+     * Get the amount of changed slots refused because the queue was full. The inventories submit them again at their next
+     * change, but those of an inventory stopped meanwhile are lost.
+     * @return The amount of slots, a long
+     */
+    public long getDropped() {
+        return this.dropped.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "StorageFlusher{" +
+                "pending=" + this.getPending() +
+                ", written=" + this.written.sum() +
+                ", flushes=" + this.flushes.sum() +
+                ", failures=" + this.failures.sum() +
+                ", dropped=" + this.dropped.sum() +
+                ", delay=" + this.delay +
+                ", capacity=" + this.capacity +
+                '}';
+    }
+}
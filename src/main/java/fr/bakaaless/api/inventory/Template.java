@@ -1,26 +1,84 @@
 package fr.bakaaless.api.inventory;
 
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
+/**
+ * An immutable layout of items, compiled once and applied to many {@link InventoryAPI}.
+ * <p>
+ * Applying a template shares its items with the inventory: the slot table is only copied when the inventory modifies it, and only
+ * the items with a function, a loader or an animation are copied, since they hold their own refreshed ItemStack. The static items
+ * are shared by all of the inventories: an inventory copies one of them the first time it's given to be modified, by
+ * {@link InventoryAPI#getItem(int)}.
+ */
 public class Template {
 
-    private final List<ItemAPI> items;
+    private final ItemTable items;
+    private final BitSet dynamic;
 
     public Template(final List<ItemAPI> items) {
-        this.items = new ArrayList<>();
+        this.items = new ItemTable(0);
+        this.dynamic = new BitSet();
         for (final ItemAPI item : items)
-            this.items.add(item.clone());
+            this.put(item.clone());
     }
 
+    private Template(final Template base, final Template layer) {
+        this.items = new ItemTable(Math.max(base.items.capacity(), layer.items.capacity()));
+        this.dynamic = new BitSet();
+        base.getItems().forEach(this::put);
+        layer.getItems().forEach(this::put);
+    }
+
+    private void put(final ItemAPI item) {
+        if (item.getSlot() < 0)
+            return;
+        item.share();
+        this.items.put(item);
+        this.dynamic.set(item.getSlot(), item.getFunction() != null || item.getLoader() != null || item.getAnimation() != null);
+    }
+
+    /**
+     * Create a new template, made of the items of this one, covered by the items of another one.
+     * @param layer The template to put over this one
+     * @return A new Template
+     */
+    public Template layer(final Template layer) {
+        return new Template(this, layer);
+    }
+
+    /**
+     * Get the items of this template, ordered by slot. They are shared by the inventories, so they mustn't be modified.
+     * @return A read-only list of {@link ItemAPI}
+     */
     public List<ItemAPI> getItems() {
-        return this.items;
+        return this.items.view();
+    }
+
+    ItemAPI getItem(final int slot) {
+        return this.items.get(slot);
+    }
+
+    /**
+     * Get a table sharing the items of this template, to be used by an inventory.
+     * @return A new copy-on-write table
+     */
+    ItemTable share() {
+        return this.items.share();
+    }
+
+    /**
+     * Get the slots of the items which have a function, and have to be copied by each inventory.
+     * @return The slots, as a bitmap
+     */
+    BitSet getDynamicSlots() {
+        return this.dynamic;
     }
 
     @Override
     public String toString() {
         return "Template{" +
-                "items=" + this.items +
+                "items=" + this.items.view() +
                 '}';
     }
 }
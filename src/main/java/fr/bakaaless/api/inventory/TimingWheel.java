@@ -0,0 +1,132 @@
+package fr.bakaaless.api.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel, counting in ticks.
+ * <p>
+ * Each level has 64 buckets, a bucket of the level <i>n</i> covering 64<sup>n</sup> ticks. Advancing the wheel only drains the
+ * bucket of the current tick, and cascades an upper bucket once every 64 ticks, so the cost of a tick depends on the amount of
+ * due entries, not on the amount of scheduled ones. Not thread-safe.
+ * @param <T> The type of the scheduled entries
+ */
+final class TimingWheel<T extends TimingWheel.Entry> {
+
+    private static final int BITS = 6;
+    private static final int BUCKETS = 1 << BITS;
+    private static final int MASK = BUCKETS - 1;
+    private static final int LEVELS = 4;
+
+    /**
+     * The maximum delay of an entry, in ticks.
+     */
+    static final long MAX_DELAY = (1L << (BITS * LEVELS)) - 1;
+
+    /**
+     * An entry of the wheel, which remembers its deadline.
+     */
+    abstract static class Entry {
+
+        long deadline;
+
+        long getDeadline() {
+            return this.deadline;
+        }
+    }
+
+    private final List<List<T>> buckets;
+    private List<T> spare;
+    private long tick;
+    private int size;
+
+    TimingWheel() {
+        this.buckets = new ArrayList<>(LEVELS * BUCKETS);
+        for (int i = 0; i < LEVELS * BUCKETS; i++)
+            this.buckets.add(new ArrayList<>());
+        this.spare = new ArrayList<>();
+        this.tick = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Schedule an entry.
+     * @param entry The entry, which must not be already scheduled
+     * @param delay The delay in ticks, at least one
+     */
+    void schedule(final T entry, final long delay) {
+        entry.deadline = this.tick + Math.min(Math.max(delay, 1L), MAX_DELAY);
+        this.insert(entry);
+        this.size++;
+    }
+
+    private void insert(final T entry) {
+        final long remaining = entry.deadline - this.tick;
+        int level = 0;
+        while (level < LEVELS - 1 && remaining >= 1L << (BITS * (level + 1)))
+            level++;
+        final int index = (int) ((entry.deadline >>> (BITS * level)) & MASK);
+        this.buckets.get(level * BUCKETS + index).add(entry);
+    }
+
+    /**
+     * Move to the next tick and give every due entry to the consumer. Entries can be rescheduled from the consumer.
+     * @param consumer The consumer of the due entries
+     */
+    void advance(final Consumer<T> consumer) {
+        this.tick++;
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((this.tick & ((1L << (BITS * level)) - 1)) != 0)
+                continue;
+            final List<T> cascaded = this.swap(level * BUCKETS + (int) ((this.tick >>> (BITS * level)) & MASK));
+            if (cascaded == null)
+                continue;
+            cascaded.forEach(this::insert);
+            cascaded.clear();
+            this.spare = cascaded;
+        }
+        final List<T> due = this.swap((int) (this.tick & MASK));
+        if (due == null)
+            return;
+        this.size -= due.size();
+        try {
+            due.forEach(consumer);
+        } finally {
+            due.clear();
+            this.spare = due;
+        }
+    }
+
+    private List<T> swap(final int index) {
+        final List<T> bucket = this.buckets.get(index);
+        if (bucket.isEmpty())
+            return null;
+        this.buckets.set(index, this.spare);
+        return bucket;
+    }
+
+    /**
+     * Get the current tick of the wheel.
+     * @return The amount of ticks since the creation of the wheel
+     */
+    long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Get the amount of scheduled entries.
+     * @return The amount of entries, an integer
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Remove every scheduled entry.
+     */
+    void clear() {
+        this.buckets.forEach(List::clear);
+        this.size = 0;
+    }
+}
@@ -0,0 +1,153 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * A large storage of items, bigger than an inventory, shown through the scrolling windows of some {@link VirtualView}.
+ * <p>
+ * The items are kept in a single array, rounded up to full rows of 9 slots, with a bitmap of the occupied slots to find a free
+ * slot without walking the array. The windows showing a changed slot are updated at once. Only one window at a time can be
+ * edited by the players, from its first click until its changes are written (see {@link VirtualView}), so that an item can't be
+ * taken through two windows. Have to be used from the main thread.
+ */
+public class VirtualContainer {
+
+    private final ItemStack[] items;
+    private final BitSet occupied;
+    private final Set<VirtualView> views;
+    private VirtualView editor;
+
+    /**
+     * @param capacity The amount of slots, rounded up to a multiple of 9
+     */
+    public VirtualContainer(final int capacity) {
+        this.items = new ItemStack[(Math.max(1, capacity) + 8) / 9 * 9];
+        this.occupied = new BitSet(this.items.length);
+        this.views = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Get the item of a slot. The ItemStack is owned by the container and mustn't be modified.
+     * @param index The index of the slot
+     * @return The ItemStack, or null if the slot is free
+     */
+    public ItemStack get(final int index) {
+        return this.items[index];
+    }
+
+    /**
+     * Change the item of a slot.
+     * @param index The index of the slot
+     * @param itemStack The ItemStack, copied, or null to free the slot
+     */
+    public void set(final int index, final ItemStack itemStack) {
+        this.put(index, itemStack == null || itemStack.getType() == Material.AIR ? null : itemStack.clone(), null);
+    }
+
+    /**
+     * Put an item in the first free slot.
+     * @param itemStack The ItemStack, copied
+     * @return The index of the slot, or -1 if the container is full
+     */
+    public int add(final ItemStack itemStack) {
+        final int index = this.occupied.nextClearBit(0);
+        if (index >= this.items.length)
+            return -1;
+        this.set(index, itemStack);
+        return index;
+    }
+
+    /**
+     * Free a slot.
+     * @param index The index of the slot
+     * @return The removed ItemStack, or null if the slot was already free
+     */
+    public ItemStack remove(final int index) {
+        final ItemStack itemStack = this.items[index];
+        this.put(index, null, null);
+        return itemStack;
+    }
+
+    /**
+     * Change a slot and update the windows showing it.
+     * @param index The index of the slot
+     * @param itemStack The ItemStack owned by the container, or null
+     * @param source The window which made the change and already shows it, or null
+     */
+    void put(final int index, final ItemStack itemStack, final VirtualView source) {
+        this.items[index] = itemStack;
+        this.occupied.set(index, itemStack != null);
+        for (final VirtualView view : this.views)
+            if (view != source)
+                view.changed(index, itemStack);
+    }
+
+    void attach(final VirtualView view) {
+        this.views.add(view);
+    }
+
+    void detach(final VirtualView view) {
+        this.views.remove(view);
+        this.unlock(view);
+    }
+
+    /**
+     * Lock the container for a window, whose players are editing it.
+     * @param view The window
+     * @return true if the container is locked by this window, false if it's already locked by another one
+     */
+    boolean lock(final VirtualView view) {
+        if (this.editor == null)
+            this.editor = view;
+        return this.editor == view;
+    }
+
+    boolean isLockedBy(final VirtualView view) {
+        return this.editor == view;
+    }
+
+    void unlock(final VirtualView view) {
+        if (this.editor == view)
+            this.editor = null;
+    }
+
+    /**
+     * Get the amount of slots of this container.
+     * @return The capacity, a multiple of 9
+     */
+    public int getCapacity() {
+        return this.items.length;
+    }
+
+    /**
+     * Get the amount of occupied slots.
+     * @return The amount of slots, an integer
+     */
+    public int getOccupied() {
+        return this.occupied.cardinality();
+    }
+
+    /**
+     * Check if every slot is occupied.
+     * @return true if full, else false
+     */
+    public boolean isFull() {
+        return this.occupied.nextClearBit(0) >= this.items.length;
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualContainer{" +
+                "capacity=" + this.items.length +
+                ", occupied=" + this.occupied.cardinality() +
+                ", views=" + this.views.size() +
+                ", locked=" + (this.editor != null) +
+                '}';
+    }
+}
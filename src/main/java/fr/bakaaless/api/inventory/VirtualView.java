@@ -0,0 +1,234 @@
+package fr.bakaaless.api.inventory;
+
+import org.bukkit.Material;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * A window of some rows of an {@link InventoryAPI}, scrolling over a {@link VirtualContainer}.
+ * <p>
+ * The slots of the window mustn't have any item of the inventory. The players can take and put items in the window: the slots
+ * they changed are written in the container at the next tick. Until then, the container is locked by this window, and the
+ * clicks of the other windows which could move its items are cancelled. When the window scrolls, the rows still visible are moved in
+ * memory and only the rows entering the window are read from the container, then only the slots whose item changed are sent.
+ */
+public class VirtualView {
+
+    private final InventoryAPI inventoryAPI;
+    private final VirtualContainer container;
+    private final int rows;
+    private ItemStack[] displayed;
+    private Inventory inventory;
+    private int row;
+    private boolean scanning;
+
+    VirtualView(final InventoryAPI inventoryAPI, final VirtualContainer container, final int rows) {
+        this.inventoryAPI = inventoryAPI;
+        this.container = container;
+        this.rows = rows;
+        this.row = 0;
+    }
+
+    /**
+     * Show the window in the built inventory.
+     * @param inventory The Bukkit inventory
+     */
+    void open(final Inventory inventory) {
+        this.inventory = inventory;
+        this.displayed = new ItemStack[this.rows * 9];
+        for (int slot = 0; slot < this.displayed.length; slot++) {
+            this.displayed[slot] = this.container.get(this.index(slot));
+            this.inventory.setItem(slot, this.displayed[slot]);
+        }
+        this.container.attach(this);
+    }
+
+    /**
+     * Write the last changes in the container and stop showing the window.
+     */
+    void close() {
+        if (this.inventory == null)
+            return;
+        this.sync();
+        this.container.detach(this);
+        this.inventory = null;
+        this.displayed = null;
+    }
+
+    /**
+     * Check if a click can be done: a click which could move the items of the window locks the container until the next sync.
+     * @param e The click event
+     * @return true if the click is allowed, false if the container is locked by another window
+     */
+    boolean allow(final InventoryClickEvent e) {
+        if (this.inventory == null)
+            return true;
+        if (e.getAction() == InventoryAction.COLLECT_TO_CURSOR)
+            return this.container.lock(this);
+        if (this.inventory.equals(e.getClickedInventory()) ? this.contains(e.getSlot()) : e.isShiftClick())
+            return this.container.lock(this);
+        return true;
+    }
+
+    /**
+     * Check if a drag can be done: a drag over the window locks the container until the next sync.
+     * @param e The drag event
+     * @return true if the drag is allowed, false if the container is locked by another window
+     */
+    boolean allow(final InventoryDragEvent e) {
+        if (this.inventory == null)
+            return true;
+        for (final int slot : e.getRawSlots())
+            if (this.contains(slot))
+                return this.container.lock(this);
+        return true;
+    }
+
+    /**
+     * Compare the window with the container at the next tick, once the click or the drag is done.
+     */
+    void scan() {
+        if (this.scanning || this.inventory == null)
+            return;
+        this.scanning = true;
+        this.inventoryAPI.getPlugin().getServer().getScheduler().runTask(this.inventoryAPI.getPlugin(), () -> {
+            this.scanning = false;
+            this.sync();
+        });
+    }
+
+    /**
+     * Write in the container the slots of the window changed by the players, and unlock the container.
+     */
+    private void sync() {
+        if (this.inventory == null || !this.container.isLockedBy(this))
+            return;
+        for (int slot = 0; slot < this.displayed.length; slot++) {
+            ItemStack itemStack = this.inventory.getItem(slot);
+            if (itemStack != null && itemStack.getType() == Material.AIR)
+                itemStack = null;
+            final ItemStack previous = this.displayed[slot];
+            if (itemStack == null ? previous == null : itemStack.equals(previous))
+                continue;
+            this.displayed[slot] = itemStack == null ? null : itemStack.clone();
+            this.container.put(this.index(slot), this.displayed[slot], this);
+        }
+        this.container.unlock(this);
+    }
+
+    /**
+     * Show a slot of the container changed by someone else, if it's in the window.
+     * @param index The index of the slot in the container
+     * @param itemStack The new ItemStack, or null
+     */
+    void changed(final int index, final ItemStack itemStack) {
+        final int slot = index - this.row * 9;
+        if (this.inventory == null || slot < 0 || slot >= this.displayed.length)
+            return;
+        this.displayed[slot] = itemStack;
+        this.inventory.setItem(slot, itemStack);
+    }
+
+    /**
+     * Scroll the window.
+     * @param rows The amount of rows to scroll, negative to scroll up
+     * @return Your VirtualView object
+     */
+    public VirtualView scroll(final int rows) {
+        return this.setRow(this.row + rows);
+    }
+
+    /**
+     * Scroll the window to a row of the container.
+     * @param row The first row shown by the window, kept between 0 and {@link #getMaxRow()}
+     * @return Your VirtualView object
+     */
+    public VirtualView setRow(final int row) {
+        final int target = Math.max(0, Math.min(row, this.getMaxRow()));
+        if (target == this.row)
+            return this;
+        if (this.inventory == null) {
+            this.row = target;
+            return this;
+        }
+        this.sync();
+        final int shift = target - this.row;
+        this.row = target;
+        final ItemStack[] next = new ItemStack[this.displayed.length];
+        for (int line = 0; line < this.rows; line++) {
+            final int source = line + shift;
+            if (source >= 0 && source < this.rows) {
+                System.arraycopy(this.displayed, source * 9, next, line * 9, 9);
+                continue;
+            }
+            for (int column = 0; column < 9; column++)
+                next[line * 9 + column] = this.container.get(this.index(line * 9 + column));
+        }
+        for (int slot = 0; slot < next.length; slot++) {
+            final ItemStack previous = this.displayed[slot];
+            if (next[slot] == null ? previous == null : next[slot].equals(previous))
+                continue;
+            this.inventory.setItem(slot, next[slot]);
+        }
+        this.displayed = next;
+        return this;
+    }
+
+    private int index(final int slot) {
+        return this.row * 9 + slot;
+    }
+
+    /**
+     * Check if a slot of the inventory belongs to the window.
+     * @param slot The slot of the inventory
+     * @return true if the slot is in the window, else false
+     */
+    public boolean contains(final int slot) {
+        return slot >= 0 && slot < this.rows * 9;
+    }
+
+    /**
+     * Get the first row shown by the window.
+     * @return The row, an integer
+     */
+    public int getRow() {
+        return this.row;
+    }
+
+    /**
+     * Get the last first row the window can scroll to.
+     * @return The row, an integer
+     */
+    public int getMaxRow() {
+        return Math.max(0, this.container.getCapacity() / 9 - this.rows);
+    }
+
+    /**
+     * Get the amount of rows of the window.
+     * @return The amount of rows, an integer
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Get the container shown by the window.
+     * @return The {@link VirtualContainer}
+     */
+    public VirtualContainer getContainer() {
+        return this.container;
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualView{" +
+                "container=" + this.container +
+                ", rows=" + this.rows +
+                ", row=" + this.row +
+                ", open=" + (this.inventory != null) +
+                '}';
+    }
+}